@@ -0,0 +1,154 @@
+package org.example;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef;
+
+/** Console window helpers (JNA, Windows only) and the help text; kept out of the headless core. */
+public class ConsoleUtil {
+
+    public interface WinAPI extends Library {
+        WinAPI INSTANCE = Native.load("kernel32", WinAPI.class);
+
+        WinDef.HWND GetConsoleWindow();
+    }
+
+    public static void setConsoleAlwaysOnTop() {
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            try {
+                WinDef.HWND consoleWindow = WinAPI.INSTANCE.GetConsoleWindow();
+                if (consoleWindow != null && !consoleWindow.getPointer().equals(com.sun.jna.Pointer.NULL)) {
+                    User32.INSTANCE.SetWindowPos(consoleWindow,
+                            new WinDef.HWND(new com.sun.jna.Pointer(-1)),
+                            0, 0, 0, 0,
+                            0x0001 | 0x0002);
+                }
+            } catch (Exception e) {
+                System.err.println("Could not set console always on top: " + e.getMessage());
+            }
+        }
+    }
+
+    public static void removeAlwaysOnTop() {
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            try {
+                WinDef.HWND consoleWindow = WinAPI.INSTANCE.GetConsoleWindow();
+                if (consoleWindow != null && !consoleWindow.getPointer().equals(com.sun.jna.Pointer.NULL)) {
+                    User32.INSTANCE.SetWindowPos(consoleWindow,
+                            new WinDef.HWND(new com.sun.jna.Pointer(-2)),
+                            0, 0, 0, 0,
+                            0x0001 | 0x0002);
+                }
+            } catch (Exception e) {
+                System.err.println("Could not remove always on top: " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean shouldSetAlwaysOnTop(String[] args) {
+        for (String arg : args) {
+            if ("--always-on-top".equals(arg) || "--ontop".equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void ensureConsoleAndRelaunch(String[] args) {
+        try {
+            boolean alwaysOnTop = shouldSetAlwaysOnTop(args);
+
+            if (java.lang.System.console() != null) {
+                if (alwaysOnTop) {
+                    setConsoleAlwaysOnTop();
+                }
+                return;
+            }
+
+            for (String a : args) if ("--console-launched".equals(a)) {
+                if (alwaysOnTop) {
+                    setConsoleAlwaysOnTop();
+                }
+                return;
+            }
+
+            java.security.CodeSource cs = new Object(){}.getClass().getEnclosingClass().getProtectionDomain().getCodeSource();
+
+            if (cs == null) return;
+
+            String jar = new java.io.File(cs.getLocation().toURI()).getAbsolutePath();
+
+            if (!jar.endsWith(".jar")) return;
+
+            String os = System.getProperty("os.name").toLowerCase();
+
+            String javaBin = new java.io.File(System.getProperty("java.home"), "bin" + java.io.File.separator + (os.contains("win") ? "java.exe" : "java")).getAbsolutePath();
+
+            // the relaunched JVM starts from the AppCDS archive when one was built next to the jar (mvn -P appcds package)
+            java.io.File archive = new java.io.File(jar.substring(0, jar.length() - 4) + ".jsa");
+            String cds = archive.isFile() ? " \"-XX:SharedArchiveFile=" + archive.getAbsolutePath() + "\"" : "";
+
+            // Build arguments string to pass through
+            StringBuilder argsBuilder = new StringBuilder();
+            for (String arg : args) {
+                if (!"--console-launched".equals(arg)) {
+                    argsBuilder.append(" \"").append(arg).append("\"");
+                }
+            }
+            String argsString = argsBuilder.toString();
+
+            if (os.contains("win")) {
+                new java.lang.ProcessBuilder("cmd","/c","start","", "cmd","/k",
+                        String.format("\"%s\"%s -jar \"%s\" --console-launched%s", javaBin, cds, jar, argsString)).start();
+                System.exit(0);
+            } else if (os.contains("mac")) {
+                new java.lang.ProcessBuilder("osascript","-e",
+                        "tell application \"Terminal\" to do script \"" + (javaBin + cds).replace("\\","\\\\").replace("\"","\\\"") + " -jar \\\"" + jar.replace("\\","\\\\").replace("\"","\\\"") + "\\\" --console-launched" + argsString + "\""
+                ).start();
+                System.exit(0);
+            } else {
+                String run = javaBin + cds + " -jar \"" + jar + "\" --console-launched" + argsString + "; exec $SHELL";
+                String[][] t = {
+                        {"x-terminal-emulator","-e","bash","-lc",run},
+                        {"gnome-terminal","--","bash","-lc",run},
+                        {"konsole","-e","bash","-lc",run},
+                        {"xterm","-e","bash","-lc",run}
+                };
+                for (String[] c : t) try { new java.lang.ProcessBuilder(c).start(); System.exit(0); } catch (Throwable ignored) {}
+            }
+        } catch (Throwable ignored) {}
+    }
+    public static void printHelp() {
+        System.out.println("Ascendancy.calc - Commands and Usage:\n" +
+                "\n" +
+                "Commands:\n" +
+                " - exit             : Quit the program\n" +
+                " - help | commands  : Show this help\n" +
+                " - ontop            : Toggle console always-on-top\n" +
+                " - setapikey        : Enter and save Gemini API key\n" +
+                " - a47b             : Toggle AI Q&A mode (type again to disable)\n" +
+                " - wasd            : Open function tools menu for current f(x)\n" +
+                " - system           : Solve a system of equations (you will be prompted)\n" +
+                " - defs             : List session definitions\n" +
+                " - undef <name>     : Remove a definition\n" +
+                " - stats            : Show evaluation/solver/render timings (stats reset | on | off | json [file])\n" +
+                " - cache            : Show the solution cache size ('cache clear' empties it)\n" +
+                " - export <file>    : Render the plots listed in a batch file to PNG/SVG, without a window\n" +
+                "\n" +
+                "Math input:\n" +
+                " - Enter numeric expressions to evaluate, e.g. 2+3*4, sin(1), sqrt(2).\n" +
+                " - Enter a function in x to store it, e.g. x^2+3x+2 or f(x) = x^3 - 1.\n" +
+                "   Then type 'wasd' to: check odd/even, solve, draw graph, or compute derivatives.\n" +
+                " - Enter an equation to solve, e.g. 2x+5 = 11, sin(x) = 0.5, or x = 3.\n" +
+                "\n" +
+                "Examples:\n" +
+                " - 3+4/2\n" +
+                " - f(x) = x^2 + 2x + 1   (then type 'wasd')\n" +
+                " - 2x + 5 = 11   (shows solutions to x)\n" +
+                " - you can also add restrictions like: e^x where x>=-1 and x<=1  or  2x where 0<x and x<6  or 2x where 0<x<6\n" +
+                " - system               (then enter number of equations and each equation)\n" +
+                " - a = 3, g(x) = a*sin(x), h(x) = g(x)^2 + a   (named definitions; redefining a updates g and h)\n"
+        );
+    }
+}
@@ -0,0 +1,306 @@
+package org.example;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+import org.example.math.Functions;
+import org.example.math.SystemSolver;
+import org.example.math.Algorthims;
+import org.example.math.Session;
+import org.example.math.SolutionCache;
+import org.example.metrics.Metrics;
+public class Main {
+
+    public static void main(String[] args) throws Exception {
+        boolean noRelaunch = false, startupTiming = false;
+        String script = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--no-relaunch" -> noRelaunch = true;
+                case "--startup-timing" -> startupTiming = true;
+                case "--script" -> script = (i + 1 < args.length) ? args[++i] : null;
+                case "--solution-cache" -> { if (i + 1 < args.length) SolutionCache.load(Path.of(args[++i])); }
+                default -> {}
+            }
+        }
+        StartupTimer.start(startupTiming);
+        if (!noRelaunch && script == null) ConsoleUtil.ensureConsoleAndRelaunch(args);
+
+        boolean aiMode = false;
+        boolean alwaysOnTop = false;
+        Scanner scanner = script != null ? new Scanner(new File(script)) : new Scanner(System.in);
+        String currentFunction = null; // as typed: expanded when used, so redefinitions reach it and its graph
+        Session session = new Session();
+        session.addListener(Subsystems.Graph::definitionsChanged);
+
+        while (true) {
+            System.out.print("> ");
+            StartupTimer.prompt();
+            if (!scanner.hasNextLine()) break;
+            String input = scanner.nextLine().trim();
+            if (script != null) System.out.println(input);
+            if (input.equalsIgnoreCase("exit")) break;
+
+            if (input.equalsIgnoreCase("help") || input.equalsIgnoreCase("commands")) {
+                ConsoleUtil.printHelp();
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("ontop")) {
+                if (!alwaysOnTop) {
+                    ConsoleUtil.setConsoleAlwaysOnTop();
+                    alwaysOnTop = true;
+                    System.out.println("Console set to always on top.");
+                } else {
+                    ConsoleUtil.removeAlwaysOnTop();
+                    alwaysOnTop = false;
+                    System.out.println("Console removed from always on top.");
+                }
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("setapikey")) {
+                System.out.print("Enter your Gemini API key: ");
+                String key = scanner.nextLine().trim();
+                Subsystems.Ai.saveApiKey(key);
+                System.out.println("API key saved.");
+                continue;
+            }
+
+            // FDTD EM Wave Visualizer
+            if (input.equalsIgnoreCase("fdtd") || input.equalsIgnoreCase("radar")) {
+                System.out.println("Launching FDTD EM Wave Visualizer...");
+                Subsystems.Physics.launchFDTDVisualizer();
+                continue;
+            }
+// Launch RCS Simulator
+            if (input.equalsIgnoreCase("rcs")) {
+                System.out.println("Launching 3D RCS Simulator...");
+                Subsystems.Physics.launchRCSSimulator();
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("a47b") && !aiMode) {
+                aiMode = true;
+                System.out.println("AI mode activated. Type your questions:");
+                continue;
+            }
+            if (aiMode && input.equalsIgnoreCase("a47b")) {
+                aiMode = false;
+                System.out.println("Disabled AI");
+                continue;
+            }
+            if (aiMode) {
+                System.out.println("Responding..");
+                String aiResponse = Subsystems.Ai.ask(input);
+                System.out.println("<Ascendancy>: " + aiResponse);
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("wasd")) {
+                if (currentFunction == null) {
+                    System.out.println("No function with x is set yet.");
+                    continue;
+                }
+                handleFunctionMenu(scanner, currentFunction, session);
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("defs")) {
+                List<String> defs = session.describe();
+                System.out.println(defs.isEmpty() ? "No definitions yet." : String.join("\n", defs));
+                continue;
+            }
+
+            if (input.toLowerCase().startsWith("undef ")) {
+                try {
+                    String name = input.substring(6).trim();
+                    System.out.println(session.remove(name) ? "Removed " + name + "." : name + " is not defined.");
+                } catch (Exception e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("stats") || input.toLowerCase().startsWith("stats ")) {
+                handleStats(input.substring(5).trim());
+                continue;
+            }
+
+            if (input.toLowerCase().startsWith("export ")) {
+                String file = input.substring(7).trim();
+                try {
+                    System.out.print(Subsystems.Export.batch(Path.of(file), session));
+                } catch (Exception e) {
+                    System.out.println("Error: could not read " + file + ": " + e.getMessage());
+                }
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("cache")) {
+                System.out.println("Solution cache: " + SolutionCache.size() + " entries. ('cache clear' to empty it)");
+                continue;
+            }
+
+            if (input.equalsIgnoreCase("cache clear")) {
+                SolutionCache.clear();
+                System.out.println("Solution cache cleared.");
+                continue;
+            }
+
+            if (input.toLowerCase().startsWith("system")) {
+                System.out.println("Enter number of equations:");
+                int n = Integer.parseInt(scanner.nextLine());
+                String[] equations = new String[n];
+                for (int i = 0; i < n; i++) {
+                    System.out.println("Enter equation " + (i + 1) + ":");
+                    equations[i] = session.expand(scanner.nextLine());
+                }
+                SystemSolver.solveSystem(equations);
+                continue;
+            }
+
+            // definitions first: implicit multiplication would split names like g2(x) or fx(t)
+            if (Session.isDefinition(input)) {
+                try {
+                    Set<String> changed = session.define(input);
+                    String name = changed.iterator().next();
+                    if (name.equals("f")) {
+                        currentFunction = "f(x)";
+                        System.out.println("Function f(x) = " + session.expand(currentFunction) + " stored. (Type 'wasd' for options)");
+                    } else {
+                        System.out.println("Defined " + name + (changed.size() > 1 ? " (updated " + (changed.size() - 1) + " dependent(s))" : ""));
+                    }
+                } catch (Exception e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+                continue;
+            }
+
+            input = Functions.fixImplicitMultiplication(input);
+
+            if (input.contains("=")) {
+                Functions.solveEquation(session.expand(input));
+                continue;
+            }
+
+            try {
+                if (!input.toLowerCase().contains("x")) {
+                    System.out.println(session.evaluate(input));
+                } else {
+                    String expanded = session.expand(input);
+                    currentFunction = input;
+                    System.out.println("Function f(x) = " + expanded + " stored. (Type 'wasd' for options)");
+                }
+            } catch (Exception e) {
+                System.out.println("Error: Invalid input! Type 'help' to see usage and examples.");
+            }
+
+            StartupTimer.result();
+
+            try {
+                Thread.sleep(47);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+        }
+
+        Subsystems.Graph.shutdown();
+        scanner.close();
+        System.out.println("Program exited.");
+    }
+    private static void handleStats(String arg) {
+        String[] parts = arg.split("\\s+", 2);
+        switch (parts[0].toLowerCase()) {
+            case "" -> System.out.print(Metrics.report());
+            case "reset" -> {
+                Metrics.reset();
+                System.out.println("Metrics reset.");
+            }
+            case "on", "off" -> {
+                Metrics.setEnabled(parts[0].equalsIgnoreCase("on"));
+                System.out.println("Metrics " + (Metrics.isEnabled() ? "enabled." : "disabled."));
+            }
+            case "json" -> {
+                if (parts.length < 2) {
+                    System.out.print(Metrics.toJson());
+                    break;
+                }
+                try {
+                    Files.writeString(Path.of(parts[1]), Metrics.toJson());
+                    System.out.println("Metrics written to " + parts[1]);
+                } catch (Exception e) {
+                    System.out.println("Error: could not write " + parts[1] + ": " + e.getMessage());
+                }
+            }
+            default -> System.out.println("Usage: stats [reset | on | off | json [file]]");
+        }
+    }
+
+    private static void handleFunctionMenu(Scanner scanner, String func, Session session) {
+        String expanded = session.expand(func);
+        DoubleUnaryOperator f;
+        try {
+            f = Functions.buildFunction(expanded);
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+
+        System.out.println("Choose an option:" +
+                "\n 1: Check Odd/Even" +
+                "\n 2: Solve Equation" +
+                "\n 3: Draw Graph" +
+                "\n 4: First Derivative at a point" +
+                "\n 5: Second Derivative at a point" +
+                "\n 6: nth Derivative at a point"
+        );
+
+        String choice = scanner.nextLine().trim();
+        try {
+            switch (choice) {
+                case "1":
+                    System.out.print("Enter a value for x: ");
+                    double x = Double.parseDouble(scanner.nextLine());
+                    Functions.testFunction(f, expanded, x);
+                    break;
+                case "2":
+                    Functions.solveWithMenu(scanner, f);
+                    break;
+                case "3":
+                    Subsystems.Graph.launch(func, session); // expanded by the renderer, redrawn on redefinition
+                    break;
+                case "4":
+                    System.out.print("Enter a value for x: ");
+                    double x1 = Double.parseDouble(scanner.nextLine());
+                    double d1 = Algorthims.derivative(f, x1);
+                    System.out.println("f'(x) ≈ " + d1);
+                    break;
+                case "5":
+                    System.out.print("Enter a value for x: ");
+                    double x2 = Double.parseDouble(scanner.nextLine());
+                    double d2 = Algorthims.secondDerivative(f, x2);
+                    System.out.println("f''(x) ≈ " + d2);
+                    break;
+                case "6":
+                    System.out.print("Enter order n: ");
+                    int n = Integer.parseInt(scanner.nextLine());
+                    System.out.print("Enter a value for x: ");
+                    double xn = Double.parseDouble(scanner.nextLine());
+                    double dn = Algorthims.nthDerivative(f, xn, n);
+                    System.out.println("f^(" + n + ")(x) ≈ " + dn);
+                    break;
+                default:
+                    System.out.println("Not implemented yet.");
+            }
+        } catch (Exception e) {
+            System.out.println("Error in function menu: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
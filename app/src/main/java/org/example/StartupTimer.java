@@ -0,0 +1,39 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Prints how long the JVM took to reach the first prompt and the first result
+ * (enabled with --startup-timing). JVM start time is only looked up when printing,
+ * so the management classes don't count against the numbers they report.
+ */
+final class StartupTimer {
+
+    private static boolean enabled = false;
+    private static long mainMillis, promptMillis;
+    private static boolean reported = false;
+
+    private StartupTimer() {}
+
+    static void start(boolean enable) {
+        enabled = enable;
+        mainMillis = System.currentTimeMillis();
+    }
+
+    /** Called before every prompt; the second prompt means the first command has finished. */
+    static void prompt() {
+        if (!enabled) return;
+        if (promptMillis == 0) promptMillis = System.currentTimeMillis();
+        else result();
+    }
+
+    static void result() {
+        if (!enabled || reported) return;
+        reported = true;
+        long resultMillis = System.currentTimeMillis();
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("[startup] main: " + (mainMillis - jvmStart) + " ms"
+                + ", first prompt: " + (promptMillis - jvmStart) + " ms"
+                + ", first result: " + (resultMillis - jvmStart) + " ms");
+    }
+}
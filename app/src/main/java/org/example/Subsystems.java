@@ -0,0 +1,81 @@
+package org.example;
+
+import javafx.application.Application;
+import org.example.ai.GeminiAI;
+import org.example.math.Session;
+import org.example.physics.FDTDVisualizer;
+import org.example.physics.RCSSimulator3D;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * The heavy parts of the app (JavaFX windows, the Gemini client) sit behind holder classes.
+ * The JVM only loads a holder the first time one of its commands runs, so a session that just
+ * evaluates expressions never loads JavaFX, OkHttp or the physics code.
+ */
+final class Subsystems {
+
+    private Subsystems() {}
+
+    static final class Graph {
+        private static volatile boolean started = false;
+
+        static void launch(String func, Session session) {
+            GraphPlotter.setSession(session);
+            GraphPlotter.launchGraph(func);
+            started = true;
+        }
+
+        static void definitionsChanged(Set<String> changed) {
+            if (started) GraphPlotter.definitionsChanged(changed);
+        }
+
+        static void shutdown() {
+            if (started && GraphPlotter.isAppLaunched()) GraphPlotter.shutdown();
+        }
+    }
+
+    static final class Export {
+        static String batch(Path specs, Session session) throws IOException {
+            return new PlotExporter(session).batch(specs);
+        }
+    }
+
+    static final class Physics {
+        static void launchFDTDVisualizer() {
+            new Thread(() -> {
+                try {
+                    Application.launch(FDTDVisualizer.class);
+                } catch (Exception e) {
+                    System.out.println("Error launching FDTD Visualizer: " + e.getMessage());
+                }
+            }).start();
+        }
+
+        static void launchRCSSimulator() {
+            new Thread(() -> {
+                try {
+                    Application.launch(RCSSimulator3D.class);
+                } catch (Exception e) {
+                    System.out.println("Error launching RCS Simulator: " + e.getMessage());
+                }
+            }).start();
+        }
+    }
+
+    static final class Ai {
+        static {
+            GeminiAI.loadApiKey();
+        }
+
+        static void saveApiKey(String key) {
+            GeminiAI.saveApiKey(key);
+        }
+
+        static String ask(String prompt) throws Exception {
+            return GeminiAI.askAI(prompt);
+        }
+    }
+}
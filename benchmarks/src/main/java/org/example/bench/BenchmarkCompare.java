@@ -0,0 +1,84 @@
+package org.example.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Diffs two JMH result files written with -rf json.
+ * Usage: java -cp benchmarks/target/benchmarks.jar org.example.bench.BenchmarkCompare base.json new.json [threshold%]
+ * Exits with 1 when any benchmark got slower than the threshold (default 10%), so it can gate CI.
+ */
+public class BenchmarkCompare {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkCompare <baseline.json> <candidate.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, double[]> base = load(Path.of(args[0]));
+        Map<String, double[]> cand = load(Path.of(args[1]));
+
+        boolean regressed = false;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (var e : cand.entrySet()) {
+            double[] b = base.get(e.getKey());
+            double[] c = e.getValue();
+            if (b == null) {
+                System.out.printf("%-70s %14s %14.3f %9s%n", e.getKey(), "-", c[0], "new");
+                continue;
+            }
+            // Scores are time per op, so positive change = slower
+            double change = (c[0] - b[0]) / b[0] * 100;
+            boolean noise = Math.abs(c[0] - b[0]) <= b[1] + c[1];
+            String flag = "";
+            if (change > threshold && !noise) {
+                flag = "  REGRESSION";
+                regressed = true;
+            } else if (change < -threshold && !noise) {
+                flag = "  improved";
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%%s%n", e.getKey(), b[0], c[0], change, flag);
+        }
+        for (String k : base.keySet()) {
+            if (!cand.containsKey(k)) System.out.printf("%-70s %14.3f %14s %9s%n", k, base.get(k)[0], "-", "removed");
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // name[params] -> {score, error}
+    private static Map<String, double[]> load(Path file) throws Exception {
+        Map<String, double[]> out = new LinkedHashMap<>();
+        try (Reader r = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(r).getAsJsonArray();
+            for (JsonElement el : runs) {
+                JsonObject run = el.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString()
+                        .replace("org.example.bench.", ""));
+                if (run.has("params")) {
+                    StringBuilder params = new StringBuilder();
+                    for (var p : run.getAsJsonObject("params").entrySet()) {
+                        if (params.length() > 0) params.append(',');
+                        params.append(p.getKey()).append('=').append(p.getValue().getAsString());
+                    }
+                    key.append('[').append(params).append(']');
+                }
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                double score = metric.get("score").getAsDouble();
+                double error = metric.get("scoreError").isJsonPrimitive() ? metric.get("scoreError").getAsDouble() : 0;
+                if (Double.isNaN(error)) error = 0;
+                out.put(key.toString(), new double[]{score, error});
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.bench;
+
+/**
+ * Expressions the benchmarks run against. Kept close to what people actually type into the console:
+ * polynomials, trig, mixed exp/log and the implicit-multiplication forms fixImplicitMultiplication handles.
+ */
+final class Corpus {
+    private Corpus() {}
+
+    // Already normalized, keyed by @Param name
+    static String function(String name) {
+        switch (name) {
+            case "poly":  return "x^3 - 6*x^2 + 11*x - 6";
+            case "trig":  return "sin(x) * cos(2*x) + 0.5";
+            case "mixed": return "exp(-x^2/10) * cos(3*x) - log(abs(x) + 1) / 4";
+            case "long":  return "3*x^5 - 2*x^4 + x^3/7 - sqrt(abs(x)) + sin(x)^2 - cos(x)^2 + tan(x/10) - 1";
+            default: throw new IllegalArgumentException("Unknown corpus entry: " + name);
+        }
+    }
+
+    // Raw console input, before fixImplicitMultiplication
+    static final String[] RAW_INPUT = {
+            "2x + 3",
+            "5x^2 - 3x + 7",
+            "3(x+1)(x-2)",
+            "2sin(x) + 4cos(2x)",
+            "x(x+1) - 2(x-1)3",
+            "10x^3 - 4x^2 + x(2x+1) - 7",
+            "sqrt(4x) + 2log(x + 1)",
+            "(x+1)2 - 3x(2 + x)"
+    };
+
+    static final String[][] LINEAR_2x2 = {
+            {"2x + 3y = 7", "x - y = 1"},
+            {"x + y = 10", "3x - 2y = 5"}
+    };
+
+    static final String[][] LINEAR_3x3 = {
+            {"x + y + z = 6", "2x - y + z = 3", "x + 2y - z = 2"},
+            {"3x + 2y - z = 1", "2x - 2y + 4z = -2", "-x + 0.5y - z = 0"}
+    };
+
+    static final String[][] NONLINEAR = {
+            {"x^2 + y^2 = 25", "x - y = 1"},
+            {"x^2 - y = 3", "x + y = 3"}
+    };
+}
@@ -0,0 +1,56 @@
+package org.example.bench;
+
+import org.example.math.Algorthims;
+import org.example.math.Functions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DerivativeBenchmark {
+
+    @Param({"poly", "trig", "mixed"})
+    public String expression;
+
+    private DoubleUnaryOperator f;
+
+    @Setup
+    public void setup() {
+        f = Functions.buildFunction(Corpus.function(expression));
+    }
+
+    @Benchmark
+    public double first() {
+        return Algorthims.derivative(f, 1.3);
+    }
+
+    @Benchmark
+    public double second() {
+        return Algorthims.secondDerivative(f, 1.3);
+    }
+
+    /** The derivative order, a state of its own so only {@link #nth} runs once per order. */
+    @State(Scope.Benchmark)
+    public static class Order {
+        // nthDerivative recurses, so cost grows as 2^(n-2)
+        @Param({"3", "5", "8"})
+        public int order;
+    }
+
+    @Benchmark
+    public double nth(Order o) {
+        return Algorthims.nthDerivative(f, 1.3, o.order);
+    }
+
+    @Benchmark
+    public List<Double> overRange() {
+        return Algorthims.derivativeOverRange(f, -10, 10, 0.1);
+    }
+}
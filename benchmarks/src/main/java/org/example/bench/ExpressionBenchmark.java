@@ -0,0 +1,47 @@
+package org.example.bench;
+
+import org.example.math.Functions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+/** Cost of evaluating a built function over a sweep of points. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    @Param({"poly", "trig", "mixed", "long"})
+    public String expression;
+
+    // Roughly one plot row at low, normal and high resolution
+    @Param({"100", "1000", "10000"})
+    public int points;
+
+    private DoubleUnaryOperator f;
+    private double step;
+
+    @Setup
+    public void setup() {
+        f = Functions.buildFunction(Corpus.function(expression));
+        step = 20.0 / points;
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole bh) {
+        double x = -10;
+        for (int i = 0; i < points; i++, x += step) {
+            bh.consume(f.applyAsDouble(x));
+        }
+    }
+
+    @Benchmark
+    public void buildAndEvaluateOnce(Blackhole bh) {
+        bh.consume(Functions.buildFunction(Corpus.function(expression)).applyAsDouble(1.5));
+    }
+}
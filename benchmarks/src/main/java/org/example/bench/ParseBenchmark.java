@@ -0,0 +1,25 @@
+package org.example.bench;
+
+import org.example.math.Functions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Input normalization the console runs on every line. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void fixImplicitMultiplication(Blackhole bh) {
+        for (String s : Corpus.RAW_INPUT) {
+            bh.consume(Functions.fixImplicitMultiplication(s));
+        }
+    }
+}
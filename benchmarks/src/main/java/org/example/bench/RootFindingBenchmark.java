@@ -0,0 +1,43 @@
+package org.example.bench;
+
+import org.example.math.Algorthims;
+import org.example.math.Functions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+/** Bracketing scan + bisection vs Newton over symmetric ranges [-range, range]. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RootFindingBenchmark {
+
+    @Param({"poly", "trig", "mixed"})
+    public String expression;
+
+    // 470 is what solveWithMenu uses, 1000 is solveEquation
+    @Param({"10", "100", "470", "1000"})
+    public double range;
+
+    private DoubleUnaryOperator f;
+
+    @Setup
+    public void setup() {
+        f = Functions.buildFunction(Corpus.function(expression));
+    }
+
+    @Benchmark
+    public List<Double> bisection() {
+        return Algorthims.findAllRoots(f, -range, range, 0.5, 1e-7, 100);
+    }
+
+    @Benchmark
+    public List<Double> newton() {
+        return Algorthims.findAllRootsNewton(f, -range, range, 1.0, 1e-7, 100);
+    }
+}
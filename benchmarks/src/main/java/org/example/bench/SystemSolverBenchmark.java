@@ -0,0 +1,40 @@
+package org.example.bench;
+
+import org.example.math.SystemSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Goes through SystemSolver.solveUncached, which is solveSystem without the printing and without the
+ * solution cache; through the cache every call after the first would only measure an LRU hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SystemSolverBenchmark {
+
+    @Param({"0", "1"})
+    public int system;
+
+    @Benchmark
+    public List<Map<String, Double>> linear2x2() {
+        return SystemSolver.solveUncached(Corpus.LINEAR_2x2[system]);
+    }
+
+    @Benchmark
+    public List<Map<String, Double>> linear3x3() {
+        return SystemSolver.solveUncached(Corpus.LINEAR_3x3[system]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Map<String, Double>> nonlinear() {
+        return SystemSolver.solveUncached(Corpus.NONLINEAR[system]);
+    }
+}
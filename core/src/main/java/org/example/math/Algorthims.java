@@ -1,10 +1,19 @@
 package org.example.math;
 
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.metrics.jfr.Jfr;
+import org.example.metrics.jfr.SolveEvent;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.DoubleUnaryOperator;
 
 public class Algorthims {
+    private static final Timer ROOTS_BISECTION = Metrics.timer("roots.bisection");
+    private static final Timer ROOTS_NEWTON = Metrics.timer("roots.newton");
+    private static final Counter DERIVATIVES = Metrics.counter("derivative.calls");
 
     public static double newtonRaphson(DoubleUnaryOperator f, double x0, double tol, int maxIter) {
         for (int i = 0; i < maxIter; i++) {
@@ -40,6 +49,8 @@ public class Algorthims {
     }
 
     public static List<Double> findAllRoots(DoubleUnaryOperator f, double start, double end, double step, double tol, int maxIter) {
+        long t0 = Metrics.start();
+        SolveEvent scanEvent = Jfr.recording() ? SolveEvent.start("bisection") : null;
         List<Double> roots = new ArrayList<>();
         double a = start;
         while (a < end) {
@@ -55,10 +66,14 @@ public class Algorthims {
             }
             a = b;
         }
+        ROOTS_BISECTION.stop(t0);
+        if (scanEvent != null) scanEvent.finish(start, end, step, roots.size());
         return roots;
     }
 
     public static List<Double> findAllRootsNewton(DoubleUnaryOperator f, double start, double end, double step, double tol, int maxIter) {
+        long t0 = Metrics.start();
+        SolveEvent scanEvent = Jfr.recording() ? SolveEvent.start("newton") : null;
         List<Double> roots = new ArrayList<>();
         for (double guess = start; guess <= end; guess += step) {
             try {
@@ -67,17 +82,21 @@ public class Algorthims {
                 if (!exists && !Double.isNaN(root) && !Double.isInfinite(root)) roots.add(root);
             } catch (Exception ignored) {}
         }
+        ROOTS_NEWTON.stop(t0);
+        if (scanEvent != null) scanEvent.finish(start, end, step, roots.size());
         return roots;
     }
 
     //derivatives
     public static double derivative(DoubleUnaryOperator f, double x) {
+        DERIVATIVES.inc();
         double h = 1e-6;
         return (f.applyAsDouble(x + h) - f.applyAsDouble(x - h)) / (2 * h);
     }
 
     /** Second derivative using central difference */
     public static double secondDerivative(DoubleUnaryOperator f, double x) {
+        DERIVATIVES.inc();
         double h = 1e-6;
         return (f.applyAsDouble(x + h) - 2 * f.applyAsDouble(x) + f.applyAsDouble(x - h)) / (h * h);
     }
@@ -0,0 +1,139 @@
+package org.example.math;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.metrics.jfr.Jfr;
+import org.example.metrics.jfr.SolveEvent;
+
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.DoubleUnaryOperator;
+public class Functions {
+    private static final Counter EVALS = Metrics.counter("expr.evals");
+    private static final Timer EQUATION_SOLVE = Metrics.timer("equation.solve");
+
+    // --- Expression utilities ---
+
+    public static double evaluateExpression(String input) {
+        EVALS.inc();
+        Expression expression = new ExpressionBuilder(input).build();
+        return expression.evaluate();
+    }
+
+    public static DoubleUnaryOperator buildFunction(String expr) {
+        return x -> {
+            EVALS.inc();
+            Expression e = new ExpressionBuilder(expr)
+                    .variable("x")
+                    .build()
+                    .setVariable("x", x);
+            return e.evaluate();
+        };
+    }
+
+    public static String fixImplicitMultiplication(String input) {
+        // digits and x that end a name (g2(3), fx(t), max(a, b)) are left alone
+        input = input.replaceAll("(?<![a-zA-Z_0-9.])(\\d+\\.?\\d*|\\.\\d+)\\s*([a-zA-Z])", "$1*$2");   // 5x -> 5*x
+        input = input.replaceAll("(\\))\\s*(\\d)", "$1*$2");       // )5 -> )*5
+        input = input.replaceAll("(?<![a-zA-Z_0-9.])(\\d+\\.?\\d*|\\.\\d+)\\s*\\(", "$1*(");   // 5( -> 5*(
+        input = input.replaceAll("(?<![a-zA-Z_0-9])(x)\\s*\\(", "$1*(");   // x( -> x*(
+        return input;
+    }
+
+    public static String readMultiline(Scanner scanner) {
+        StringBuilder sb = new StringBuilder();
+        String line;
+        while (!(line = scanner.nextLine()).isEmpty()) {
+            sb.append(line).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // --- Function analysis ---
+
+    public static void testFunction(DoubleUnaryOperator f, String functionDescription, double x) {
+        System.out.println("\nTesting f(x) = " + functionDescription);
+        double fx = f.applyAsDouble(x);
+        double fNegX = f.applyAsDouble(-x);
+        System.out.println("f(" + x + ") = " + fx);
+        System.out.println("f(" + (-x) + ") = " + fNegX);
+        System.out.println("Function type: " + checkFunctionType(f, x));
+    }
+
+    public static String checkFunctionType(DoubleUnaryOperator f, double x) {
+        double fX = f.applyAsDouble(x);
+        double fNegX = f.applyAsDouble(-x);
+        if (fX == fNegX) return "Even";
+        else if (fX == -fNegX) return "Odd";
+        else return "Neither";
+    }
+
+    // --- Equation solving ---
+
+    public static void solveEquation(String input) {
+        try {
+            List<Double> roots = findRoots(input);
+            if (roots.isEmpty()) {
+                System.out.println("No real solution found.");
+            } else {
+                System.out.println("Solutions: " + roots);
+            }
+        } catch (Exception e) {
+            System.out.println("Error: Could not solve equation. Please check your syntax.");
+        }
+    }
+
+    /** Real roots of "lhs = rhs" in [-1000, 1000]. Repeats are served from {@link SolutionCache}. */
+    public static List<Double> findRoots(String input) {
+        String[] parts = input.split("=");
+        if (parts.length != 2) throw new RuntimeException("Invalid equation format");
+
+        String lhs = parts[0].trim();
+        String rhs = parts[1].trim();
+
+        long t0 = Metrics.start();
+        SolveEvent event = Jfr.recording() ? SolveEvent.start("equation") : null;
+        String key = SolutionCache.equationKey(input, "bisection,-1000,1000,1,1e-7,100");
+        List<Double> roots = SolutionCache.getRoots(key);
+        boolean cached = roots != null;
+        if (roots == null) {
+            // Build f(x) = lhs - rhs
+            String equation = "(" + lhs + ")-(" + rhs + ")";
+            DoubleUnaryOperator f = buildFunction(equation);
+
+            roots = Algorthims.findAllRoots(f, -1000, 1000, 1, 1e-7, 100);
+            SolutionCache.putRoots(key, roots);
+        }
+        EQUATION_SOLVE.stop(t0);
+        if (event != null) event.finish(input, -1000, 1000, 1, cached, roots.size());
+        return roots;
+    }
+
+    public static void solveWithMenu(Scanner scanner, DoubleUnaryOperator f) {
+        System.out.println("Choose root-finding method: 1) Newton-Raphson 2) Bisection");
+        String method = scanner.nextLine().trim();
+        long startTime = System.nanoTime();
+
+        try {
+            List<Double> roots;
+            if (method.equals("1")) {
+                roots = Algorthims.findAllRootsNewton(f, -470, 470, 1.0, 1e-7, 100);
+            } else {
+                roots = Algorthims.findAllRoots(f, -470, 470, 0.5, 1e-7, 100);
+            }
+            long endTime = System.nanoTime();
+            System.out.println("Roots ≈ " + roots);
+            System.out.println("Calculation time: " + (endTime - startTime) / 1_000_000.0 + " ms");
+        } catch (Exception e) {
+            System.out.println("Error: Could not solve function.");
+        }
+    }
+
+
+    public class fun {
+
+    }
+}
@@ -0,0 +1,337 @@
+package org.example.math;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Named definitions entered at the prompt, e.g. {@code a = 3}, {@code g(x) = a*sin(x)}.
+ * <p>
+ * User functions are inlined into their callers when compiled, while variables stay exp4j
+ * variable slots. When a definition changes only its dependents are touched: functions that
+ * inline a changed function are recompiled, everything else just gets the new variable values.
+ */
+public class Session {
+
+    public interface Listener {
+        void definitionsChanged(Set<String> changed);
+    }
+
+    private static final Pattern DEFINITION = Pattern.compile(
+            "^\\s*([a-zA-Z_][a-zA-Z0-9_]*)\\s*(?:\\(\\s*([a-zA-Z_][a-zA-Z0-9_]*)\\s*\\))?\\s*=(?!=)(.+)$");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    /** Variables of the graph's entry kinds, constants and 'where' keywords; none can be defined. */
+    public static final Set<String> RESERVED = Set.of("x", "y", "t", "r", "theta", "pi", "e", "where", "and", "or",
+            "not", "in");
+
+    static class Definition {
+        final String name;
+        final String param;   // null for variables
+        final String body;
+        final Set<String> deps;
+        String inlined;       // body with every user function call expanded
+        Set<String> variables = Set.of(); // variables referenced after inlining
+        Expression compiled;
+        double value = Double.NaN;
+
+        Definition(String name, String param, String body, Set<String> deps) {
+            this.name = name;
+            this.param = param;
+            this.body = body;
+            this.deps = deps;
+        }
+
+        boolean isFunction() { return param != null; }
+
+        @Override
+        public String toString() {
+            return isFunction() ? name + "(" + param + ") = " + body : name + " = " + body;
+        }
+    }
+
+    private final Map<String, Definition> definitions = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<String, String> expansionCache = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(Listener listener) { listeners.add(listener); }
+
+    /**
+     * Returns true when the input looks like {@code name = expr} or {@code name(p) = expr}
+     * and should be stored rather than solved as an equation in x.
+     */
+    public static boolean isDefinition(String input) {
+        Matcher m = DEFINITION.matcher(input);
+        if (!m.matches()) return false;
+        String name = m.group(1), param = m.group(2), body = m.group(3);
+        if (isReserved(name) || body.contains("=")) return false;
+        // "y = 2x" stays an equation; a variable body can't mention x
+        return param != null || !identifiers(body).contains("x");
+    }
+
+    /**
+     * Stores (or replaces) a definition and refreshes everything depending on it.
+     *
+     * @return the names that were recompiled or re-evaluated, starting with the defined name
+     */
+    public synchronized Set<String> define(String input) {
+        Matcher m = DEFINITION.matcher(input);
+        if (!m.matches()) throw new IllegalArgumentException("Not a definition: " + input);
+        String name = m.group(1);
+        String param = m.group(2);
+        String body = Functions.fixImplicitMultiplication(m.group(3).trim());
+        if (isReserved(name)) throw new IllegalArgumentException("'" + name + "' is reserved");
+
+        Set<String> deps = new LinkedHashSet<>();
+        for (String id : identifiers(body)) {
+            if (id.equals(param)) continue;
+            if (id.equals(name)) throw new IllegalArgumentException(name + " can't refer to itself");
+            if (definitions.containsKey(id)) deps.add(id);
+        }
+        for (String dep : deps) {
+            if (dependsOn(dep, name)) throw new IllegalArgumentException("Circular definition: " + name + " <-> " + dep);
+        }
+
+        Definition previous = definitions.get(name);
+        Definition def = new Definition(name, param, body, deps);
+        compile(def); // fail before touching the graph if the body is invalid
+
+        if (previous != null) {
+            for (String dep : previous.deps) dependents.getOrDefault(dep, Set.of()).remove(name);
+        }
+        for (String dep : deps) dependents.computeIfAbsent(dep, k -> new LinkedHashSet<>()).add(name);
+        definitions.put(name, def);
+        expansionCache.clear();
+
+        Set<String> changed = refreshDependents(name, previous == null || def.isFunction() || previous.isFunction());
+        for (Listener l : listeners) l.definitionsChanged(Collections.unmodifiableSet(changed));
+        return changed;
+    }
+
+    public synchronized boolean remove(String name) {
+        Set<String> users = dependents.getOrDefault(name, Set.of());
+        if (!users.isEmpty()) throw new IllegalArgumentException(name + " is used by " + String.join(", ", users));
+        Definition def = definitions.remove(name);
+        if (def == null) return false;
+        for (String dep : def.deps) dependents.getOrDefault(dep, Set.of()).remove(name);
+        dependents.remove(name);
+        expansionCache.clear();
+        for (Listener l : listeners) l.definitionsChanged(Set.of(name));
+        return true;
+    }
+
+    public synchronized boolean isDefined(String name) { return definitions.containsKey(name); }
+
+    public synchronized List<String> describe() {
+        List<String> out = new ArrayList<>();
+        for (Definition d : definitions.values()) {
+            out.add(d.isFunction() ? d.toString() : d + "   (= " + d.value + ")");
+        }
+        return out;
+    }
+
+    /** Evaluates a variable, or a function at the given argument. */
+    public synchronized double evaluate(String name, double arg) {
+        Definition d = definitions.get(name);
+        if (d == null) throw new IllegalArgumentException("Unknown name: " + name);
+        if (!d.isFunction()) return d.value;
+        return d.compiled.setVariable(d.param, arg).evaluate();
+    }
+
+    /** Evaluates an expression without free variables against the current definitions. */
+    public synchronized double evaluate(String expr) {
+        String inlined = inline(expr, null);
+        Set<String> vars = referencedVariables(inlined);
+        Expression e = new ExpressionBuilder(inlined).variables(vars).build();
+        for (String v : vars) e.setVariable(v, definitions.get(v).value);
+        return e.evaluate();
+    }
+
+    /**
+     * Rewrites an expression in terms of builtins only: user functions are inlined and
+     * variables replaced by their current values, so the result can be handed to code
+     * that knows nothing about the session (root finders, the graph window).
+     */
+    public synchronized String expand(String expr) {
+        if (definitions.isEmpty()) return expr;
+        String cached = expansionCache.get(expr);
+        if (cached != null) return cached;
+        String inlined = inline(expr, null);
+        StringBuilder sb = new StringBuilder();
+        Matcher m = IDENTIFIER.matcher(inlined);
+        int last = 0;
+        while (m.find()) {
+            Definition d = definitions.get(m.group());
+            if (d == null || d.isFunction() || followedByParen(inlined, m.end())) continue;
+            sb.append(inlined, last, m.start()).append('(').append(format(d.value)).append(')');
+            last = m.end();
+        }
+        sb.append(inlined.substring(last));
+        String result = sb.toString();
+        expansionCache.put(expr, result);
+        return result;
+    }
+
+    /** True if the expression mentions any of the given names. */
+    public static boolean references(String expr, Set<String> names) {
+        for (String id : identifiers(expr)) if (names.contains(id)) return true;
+        return false;
+    }
+
+    // --- internals ---
+
+    /** Builtin names can't be redefined, so "sin(x) = 0.5" is still solved as an equation. */
+    private static boolean isReserved(String name) {
+        return RESERVED.contains(name.toLowerCase())
+                || net.objecthunter.exp4j.function.Functions.getBuiltinFunction(name) != null;
+    }
+
+    private boolean dependsOn(String name, String target) {
+        if (name.equals(target)) return true;
+        Definition d = definitions.get(name);
+        if (d == null) return false;
+        for (String dep : d.deps) if (dependsOn(dep, target)) return true;
+        return false;
+    }
+
+    /**
+     * Walks the dependents of {@code root} in topological order. A definition is recompiled
+     * only when a function it inlines was recompiled; otherwise it just picks up new values.
+     */
+    private Set<String> refreshDependents(String root, boolean rootIsStructural) {
+        List<String> order = new ArrayList<>();
+        topoSort(root, new HashSet<>(), order);
+        Collections.reverse(order);
+
+        Set<String> recompiled = new HashSet<>();
+        if (rootIsStructural) recompiled.add(root);
+        Set<String> changed = new LinkedHashSet<>();
+        changed.add(root);
+
+        for (String name : order) {
+            if (name.equals(root)) continue;
+            Definition d = definitions.get(name);
+            boolean structural = false;
+            for (String dep : d.deps) {
+                if (recompiled.contains(dep) && definitions.get(dep).isFunction()) { structural = true; break; }
+            }
+            if (structural) {
+                compile(d);
+                recompiled.add(name);
+            } else {
+                bind(d);
+            }
+            changed.add(name);
+        }
+        return changed;
+    }
+
+    private void topoSort(String name, Set<String> seen, List<String> out) {
+        if (!seen.add(name)) return;
+        for (String user : dependents.getOrDefault(name, Set.of())) topoSort(user, seen, out);
+        out.add(name);
+    }
+
+    private void compile(Definition d) {
+        d.inlined = inline(d.body, d.param);
+        d.variables = referencedVariables(d.inlined);
+        ExpressionBuilder builder = new ExpressionBuilder(d.inlined).variables(d.variables);
+        if (d.isFunction()) builder.variable(d.param);
+        d.compiled = builder.build();
+        bind(d);
+    }
+
+    private void bind(Definition d) {
+        for (String v : d.variables) d.compiled.setVariable(v, definitions.get(v).value);
+        if (!d.isFunction()) d.value = d.compiled.evaluate();
+    }
+
+    private Set<String> referencedVariables(String inlined) {
+        Set<String> vars = new LinkedHashSet<>();
+        for (String id : identifiers(inlined)) {
+            Definition d = definitions.get(id);
+            if (d != null && !d.isFunction()) vars.add(id);
+        }
+        return vars;
+    }
+
+    /** Replaces every call to a user function with its (already inlined) body. */
+    private String inline(String expr, String param) {
+        StringBuilder sb = new StringBuilder();
+        Matcher m = IDENTIFIER.matcher(expr);
+        int pos = 0;
+        while (m.find(pos)) {
+            String id = m.group();
+            Definition d = definitions.get(id);
+            int open = skipSpaces(expr, m.end());
+            if (d == null || !d.isFunction() || id.equals(param) || open >= expr.length() || expr.charAt(open) != '(') {
+                sb.append(expr, pos, m.end());
+                pos = m.end();
+                continue;
+            }
+            int close = matchingParen(expr, open);
+            if (close < 0) throw new IllegalArgumentException("Unbalanced parentheses in call to " + id);
+            String arg = inline(expr.substring(open + 1, close), param);
+            String body = d.inlined != null ? d.inlined : inline(d.body, d.param);
+            sb.append(expr, pos, m.start())
+              .append('(').append(substitute(body, d.param, "(" + arg + ")")).append(')');
+            pos = close + 1;
+        }
+        sb.append(expr.substring(pos));
+        return sb.toString();
+    }
+
+    private static String substitute(String expr, String name, String replacement) {
+        StringBuilder sb = new StringBuilder();
+        Matcher m = IDENTIFIER.matcher(expr);
+        int last = 0;
+        while (m.find()) {
+            if (!m.group().equals(name)) continue;
+            sb.append(expr, last, m.start()).append(replacement);
+            last = m.end();
+        }
+        sb.append(expr.substring(last));
+        return sb.toString();
+    }
+
+    private static Set<String> identifiers(String expr) {
+        Set<String> ids = new LinkedHashSet<>();
+        Matcher m = IDENTIFIER.matcher(expr);
+        while (m.find()) {
+            // skip the exponent of literals like 1e5
+            if (m.start() > 0 && Character.isDigit(expr.charAt(m.start() - 1))) continue;
+            ids.add(m.group());
+        }
+        return ids;
+    }
+
+    private static int matchingParen(String s, int open) {
+        int depth = 0;
+        for (int i = open; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')' && --depth == 0) return i;
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean followedByParen(String s, int i) {
+        i = skipSpaces(s, i);
+        return i < s.length() && s.charAt(i) == '(';
+    }
+
+    private static String format(double v) {
+        if (!Double.isFinite(v)) return "0/0";
+        return BigDecimal.valueOf(v).toPlainString();
+    }
+}
@@ -0,0 +1,293 @@
+package org.example.math;
+
+import net.objecthunter.exp4j.shuntingyard.ShuntingYard;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Results of equation and system solves, keyed by the canonical form of the input plus the solver
+ * parameters, so "2x + 5 = 11", "11 = 5+2*x" and "(2*x)+5=11" share one entry.
+ *
+ * In memory it is an LRU of {@link #CAPACITY} entries. With {@link #load} it is also backed by a
+ * file: existing entries are read at startup and every new result is appended to it. Once the file
+ * holds {@link #COMPACT_LINES} lines it is rewritten with just the entries in memory.
+ */
+public final class SolutionCache {
+    static final int CAPACITY = 512;
+    static final int COMPACT_LINES = 4 * CAPACITY;
+    private static final Set<String> CONSTANTS = Set.of("pi", "π", "e", "φ");
+
+    private static final Counter HITS = Metrics.counter("cache.hits");
+    private static final Counter MISSES = Metrics.counter("cache.misses");
+
+    // key -> List<Double> (roots) or List<Map<String, Double>> (system solutions), both unmodifiable
+    private static final LinkedHashMap<String, Object> MEMORY = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private static Path diskFile;
+    private static int diskLines; // lines in diskFile, evicted and overwritten entries included
+
+    private SolutionCache() {}
+
+    // --- Keys ---
+
+    /** Key for "lhs = rhs" solved for x; the two sides are ordered so swapping them hits the same entry. */
+    static String equationKey(String equation, String params) {
+        String[] parts = equation.split("=");
+        String a = canonical(parts[0], Set.of("x"));
+        String b = parts.length > 1 ? canonical(parts[1], Set.of("x")) : "0.0";
+        return "eq|" + (a.compareTo(b) <= 0 ? a + "=" + b : b + "=" + a) + "|" + params;
+    }
+
+    /** Key for a system; equation order does not matter, but sides are kept as written. */
+    static String systemKey(String[] equations, Collection<String> vars, String params) {
+        List<String> eqs = new ArrayList<>();
+        for (String eq : equations) {
+            String[] parts = eq.split("=");
+            eqs.add(parts.length > 1 ? canonical(parts[0], vars) + "=" + canonical(parts[1], vars) : canonical(parts[0], vars));
+        }
+        Collections.sort(eqs);
+        return "sys|" + String.join(";", eqs) + "|" + params;
+    }
+
+    /**
+     * Canonical text of an expression: parsed by exp4j, then printed as a prefix tree with numbers
+     * normalized and the operands of + and * flattened and sorted. Falls back to the input without
+     * whitespace if it does not parse.
+     */
+    public static String canonical(String expr, Collection<String> vars) {
+        try {
+            Set<String> names = new HashSet<>(vars);
+            names.addAll(CONSTANTS);
+            Token[] rpn = ShuntingYard.convertToRPN(expr.trim(), Collections.emptyMap(), Collections.emptyMap(), names, true);
+
+            Deque<Node> stack = new ArrayDeque<>();
+            for (Token t : rpn) {
+                if (t instanceof NumberToken) {
+                    stack.push(new Node(Double.toString(((NumberToken) t).getValue())));
+                } else if (t instanceof VariableToken) {
+                    stack.push(new Node(((VariableToken) t).getName()));
+                } else if (t instanceof OperatorToken) {
+                    var op = ((OperatorToken) t).getOperator();
+                    String name = op.getNumOperands() == 1 ? "u" + op.getSymbol() : op.getSymbol();
+                    stack.push(Node.apply(name, pop(stack, op.getNumOperands())));
+                } else if (t instanceof FunctionToken) {
+                    var fn = ((FunctionToken) t).getFunction();
+                    stack.push(Node.apply(fn.getName(), pop(stack, fn.getNumArguments())));
+                } else {
+                    throw new IllegalArgumentException("Unexpected token");
+                }
+            }
+            if (stack.size() != 1) throw new IllegalArgumentException("Malformed expression");
+            return stack.pop().toString();
+        } catch (RuntimeException e) {
+            return expr.replaceAll("\\s+", "");
+        }
+    }
+
+    private static List<Node> pop(Deque<Node> stack, int n) {
+        Node[] args = new Node[n];
+        for (int i = n - 1; i >= 0; i--) args[i] = stack.pop();
+        return Arrays.asList(args);
+    }
+
+    private static final class Node {
+        final String name;
+        final List<Node> args;
+
+        Node(String leaf) {
+            this.name = leaf;
+            this.args = List.of();
+        }
+
+        Node(String name, List<Node> args) {
+            this.name = name;
+            this.args = args;
+        }
+
+        static Node apply(String name, List<Node> args) {
+            if (!name.equals("+") && !name.equals("*")) return new Node(name, args);
+            List<Node> flat = new ArrayList<>();
+            for (Node a : args) {
+                if (a.name.equals(name) && !a.args.isEmpty()) flat.addAll(a.args);
+                else flat.add(a);
+            }
+            flat.sort(Comparator.comparing(Node::toString));
+            return new Node(name, flat);
+        }
+
+        @Override
+        public String toString() {
+            if (args.isEmpty()) return name;
+            StringJoiner j = new StringJoiner(",", name + "(", ")");
+            for (Node a : args) j.add(a.toString());
+            return j.toString();
+        }
+    }
+
+    // --- Lookup ---
+
+    @SuppressWarnings("unchecked")
+    static synchronized List<Double> getRoots(String key) {
+        Object v = MEMORY.get(key);
+        (v instanceof List ? HITS : MISSES).inc();
+        return (List<Double>) v;
+    }
+
+    static void putRoots(String key, List<Double> roots) {
+        List<Double> value = List.copyOf(roots);
+        synchronized (SolutionCache.class) {
+            MEMORY.put(key, value);
+        }
+        append("R", key, encodeRoots(value));
+    }
+
+    @SuppressWarnings("unchecked")
+    static synchronized List<Map<String, Double>> getSolutions(String key) {
+        Object v = MEMORY.get(key);
+        (v instanceof List ? HITS : MISSES).inc();
+        return (List<Map<String, Double>>) v;
+    }
+
+    static void putSolutions(String key, List<Map<String, Double>> solutions) {
+        List<Map<String, Double>> value = new ArrayList<>();
+        for (Map<String, Double> s : solutions) value.add(Collections.unmodifiableMap(new LinkedHashMap<>(s)));
+        value = Collections.unmodifiableList(value);
+        synchronized (SolutionCache.class) {
+            MEMORY.put(key, value);
+        }
+        append("S", key, encodeSolutions(value));
+    }
+
+    public static synchronized int size() {
+        return MEMORY.size();
+    }
+
+    /** Empties the memory tier and, if one is attached, the file. */
+    public static synchronized void clear() {
+        MEMORY.clear();
+        diskLines = 0;
+        if (diskFile != null) {
+            try {
+                Files.writeString(diskFile, "", StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.out.println("Failed to clear solution cache file: " + e.getMessage());
+            }
+        }
+    }
+
+    // --- Disk tier ---
+
+    /**
+     * Attaches {@code file} as the persistent tier: reads the entries it has (newest win, LRU capacity
+     * applies) and appends new results to it from now on. The file is rewritten compacted if it holds
+     * more lines than entries.
+     */
+    public static synchronized void load(Path file) {
+        diskFile = file;
+        diskLines = 0;
+        if (!Files.exists(file)) return;
+        int lines = 0;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] f = line.split("\t", -1);
+                if (f.length != 3) continue;
+                lines++;
+                try {
+                    if (f[0].equals("R")) MEMORY.put(f[1], decodeRoots(f[2]));
+                    else if (f[0].equals("S")) MEMORY.put(f[1], decodeSolutions(f[2]));
+                } catch (RuntimeException ignored) {}
+            }
+            diskLines = lines;
+            if (lines > MEMORY.size()) compact();
+        } catch (IOException e) {
+            System.out.println("Failed to read solution cache: " + e.getMessage());
+        }
+    }
+
+    private static void compact() throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(diskFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Object> e : MEMORY.entrySet()) {
+                w.write(line(e.getKey(), e.getValue()));
+            }
+        }
+        diskLines = MEMORY.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String line(String key, Object value) {
+        List<?> list = (List<?>) value;
+        boolean solutions = !list.isEmpty() && list.get(0) instanceof Map;
+        // Empty lists are stored as roots; both decode to an empty result
+        return solutions ? "S\t" + key + "\t" + encodeSolutions((List<Map<String, Double>>) value) + "\n"
+                : "R\t" + key + "\t" + encodeRoots((List<Double>) value) + "\n";
+    }
+
+    // under the lock, so a compaction cannot drop a line being appended
+    private static synchronized void append(String type, String key, String value) {
+        if (diskFile == null) return;
+        try {
+            if (++diskLines > COMPACT_LINES) {
+                compact(); // the new entry is in memory already
+            } else {
+                Files.writeString(diskFile, type + "\t" + key + "\t" + value + "\n", StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to write solution cache: " + e.getMessage());
+        }
+    }
+
+    // roots: "1.0,2.5"   solutions: "x=1.0,y=2.0;x=-3.0,y=6.0"
+    private static String encodeRoots(List<Double> roots) {
+        StringJoiner j = new StringJoiner(",");
+        for (double r : roots) j.add(Double.toString(r));
+        return j.toString();
+    }
+
+    private static List<Double> decodeRoots(String s) {
+        List<Double> roots = new ArrayList<>();
+        if (!s.isEmpty()) for (String r : s.split(",")) roots.add(Double.parseDouble(r));
+        return List.copyOf(roots);
+    }
+
+    private static String encodeSolutions(List<Map<String, Double>> solutions) {
+        StringJoiner out = new StringJoiner(";");
+        for (Map<String, Double> sol : solutions) {
+            StringJoiner j = new StringJoiner(",");
+            sol.forEach((k, v) -> j.add(k + "=" + v));
+            out.add(j.toString());
+        }
+        return out.toString();
+    }
+
+    private static List<Map<String, Double>> decodeSolutions(String s) {
+        List<Map<String, Double>> solutions = new ArrayList<>();
+        if (s.isEmpty()) return List.of();
+        for (String sol : s.split(";")) {
+            Map<String, Double> m = new LinkedHashMap<>();
+            for (String kv : sol.split(",")) {
+                int eq = kv.indexOf('=');
+                m.put(kv.substring(0, eq), Double.parseDouble(kv.substring(eq + 1)));
+            }
+            solutions.add(Collections.unmodifiableMap(m));
+        }
+        return Collections.unmodifiableList(solutions);
+    }
+}
@@ -2,6 +2,10 @@ package org.example.math;
 
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.metrics.jfr.Jfr;
+import org.example.metrics.jfr.SolveEvent;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -10,19 +14,101 @@ import java.util.regex.Pattern;
 public class SystemSolver {
     private static final double TOL = 1e-6;
     private static final int MAX_ITER = 100;
+    private static final Timer SOLVE = Metrics.timer("system.solve");
 
     public static void solveSystem(String[] equations) {
+        String method = method(equations, countVars(equations));
+        if (method.equals("single")) System.out.println("Finding roots in [-10, 10]...");
+
+        List<Map<String, Double>> solutions = solve(equations);
+
+        switch (method) {
+            case "single" -> {
+                List<Double> roots = new ArrayList<>();
+                for (Map<String, Double> s : solutions) roots.add(s.get("x"));
+                System.out.println(roots.isEmpty() ? "No roots found." : "Roots: " + roots);
+            }
+            case "linear2x2", "linear3x3" -> {
+                if (solutions.isEmpty()) {
+                    System.out.println("No unique solution.");
+                } else {
+                    StringJoiner j = new StringJoiner(", ", "Solution: ", "");
+                    solutions.get(0).forEach((v, val) -> j.add(v + " = " + val));
+                    System.out.println(j);
+                }
+            }
+            default -> {
+                if (solutions.isEmpty()) {
+                    System.out.println("No solution found.");
+                } else {
+                    for (int i = 0; i < solutions.size(); i++) {
+                        System.out.print("Solution " + (i + 1) + ": ");
+                        solutions.get(i).forEach((v, val) -> System.out.print(v + " = " + val + ", "));
+                        System.out.println();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Same dispatch as {@link #solveSystem} but returns the solutions instead of printing them,
+     * one map of variable -> value per solution (empty if none was found). Repeats are served
+     * from {@link SolutionCache}.
+     */
+    public static List<Map<String, Double>> solve(String[] equations) {
+        long t0 = Metrics.start();
+        SolveEvent event = Jfr.recording() ? SolveEvent.start("system") : null;
         int vars = countVars(equations);
+        String method = method(equations, vars);
+
+        String key = SolutionCache.systemKey(equations, getVarNames(equations), method + "," + TOL + "," + MAX_ITER);
+        List<Map<String, Double>> out = SolutionCache.getSolutions(key);
+        boolean cached = out != null;
+        if (out == null) {
+            out = compute(equations, vars, method);
+            // Random restarts may still find something next time
+            if (!out.isEmpty() || !method.equals("nonlinear")) SolutionCache.putSolutions(key, out);
+        }
+        SOLVE.stop(t0);
+        if (event != null) event.finish(equations, vars, method, cached, out.size());
+        return out;
+    }
 
-        if (equations.length == 1 && vars == 1) {
-            solveSingle(equations[0]);
-        } else if (equations.length == 2 && vars == 2 && isLinear(equations)) {
-            solve2x2(equations[0], equations[1]);
-        } else if (equations.length == 3 && vars == 3 && isLinear(equations)) {
-            solve3x3(equations);
-        } else {
-            solveNonlinear(equations, vars);
+    /**
+     * {@link #solve} without {@link SolutionCache} and without metrics, so every call does the full
+     * work; for benchmarks.
+     */
+    public static List<Map<String, Double>> solveUncached(String[] equations) {
+        int vars = countVars(equations);
+        return compute(equations, vars, method(equations, vars));
+    }
+
+    private static List<Map<String, Double>> compute(String[] equations, int vars, String method) {
+        List<Map<String, Double>> out = new ArrayList<>();
+        switch (method) {
+            case "single" -> {
+                for (double r : singleRoots(equations[0])) out.add(Map.of("x", r));
+            }
+            case "linear2x2", "linear3x3" -> {
+                double[] sol = equations.length == 2 ? linear2x2(equations[0], equations[1]) : linear3x3(equations);
+                if (sol != null) {
+                    String[] names = {"x", "y", "z"};
+                    Map<String, Double> m = new LinkedHashMap<>();
+                    for (int i = 0; i < sol.length; i++) m.put(names[i], sol[i]);
+                    out.add(m);
+                }
+            }
+            default -> out.addAll(nonlinear(equations, vars));
         }
+        return out;
+    }
+
+    private static String method(String[] equations, int vars) {
+        if (equations.length == 1 && vars == 1) return "single";
+        if (equations.length == 2 && vars == 2 && isLinear(equations)) return "linear2x2";
+        if (equations.length == 3 && vars == 3 && isLinear(equations)) return "linear3x3";
+        return "nonlinear";
     }
 
     private static int countVars(String[] equations) {
@@ -38,31 +124,34 @@ public class SystemSolver {
         return Arrays.stream(equations).noneMatch(eq -> eq.contains("^"));
     }
 
-    private static void solveSingle(String eq) {
+    private static List<Double> singleRoots(String eq) {
         String expr = normalize(eq);
         Expression f = new ExpressionBuilder(expr).variable("x").build();
         var fun = (java.util.function.DoubleUnaryOperator) x -> f.setVariable("x", x).evaluate();
-
-        System.out.println("Finding roots in [-10, 10]...");
-        var roots = Algorthims.findAllRoots(fun, -10, 10, 0.5, TOL, MAX_ITER);
-        System.out.println(roots.isEmpty() ? "No roots found." : "Roots: " + roots);
+        return Algorthims.findAllRoots(fun, -10, 10, 0.5, TOL, MAX_ITER);
     }
 
     public static void solve2x2(String eq1, String eq2) {
-        double[] c1 = parse2D(eq1), c2 = parse2D(eq2);
-        double det = c1[0] * c2[1] - c2[0] * c1[1];
-
-        if (Math.abs(det) < TOL) {
+        double[] sol = linear2x2(eq1, eq2);
+        if (sol == null) {
             System.out.println("No unique solution.");
             return;
         }
+        System.out.println("Solution: x = " + sol[0] + ", y = " + sol[1]);
+    }
+
+    private static double[] linear2x2(String eq1, String eq2) {
+        double[] c1 = parse2D(eq1), c2 = parse2D(eq2);
+        double det = c1[0] * c2[1] - c2[0] * c1[1];
+
+        if (Math.abs(det) < TOL) return null;
 
         double x = (c1[2] * c2[1] - c2[2] * c1[1]) / det;
         double y = (c1[0] * c2[2] - c2[0] * c1[2]) / det;
-        System.out.println("Solution: x = " + x + ", y = " + y);
+        return new double[]{x, y};
     }
 
-    private static void solve3x3(String[] eqs) {
+    private static double[] linear3x3(String[] eqs) {
         double[][] A = new double[3][3];
         double[] B = new double[3];
 
@@ -73,23 +162,20 @@ public class SystemSolver {
         }
 
         double detA = det3x3(A);
-        if (Math.abs(detA) < TOL) {
-            System.out.println("No unique solution.");
-            return;
-        }
+        if (Math.abs(detA) < TOL) return null;
 
         double x = det3x3(replaceCol(A, B, 0)) / detA;
         double y = det3x3(replaceCol(A, B, 1)) / detA;
         double z = det3x3(replaceCol(A, B, 2)) / detA;
-        System.out.println("Solution: x = " + x + ", y = " + y + ", z = " + z);
+        return new double[]{x, y, z};
     }
 
-    private static void solveNonlinear(String[] equations, int vars) {
+    private static List<Map<String, Double>> nonlinear(String[] equations, int vars) {
         List<String> varNames = getVarNames(equations);
-        if (varNames.size() != vars) return;
+        List<Map<String, Double>> solutions = new ArrayList<>();
+        if (varNames.size() != vars) return solutions;
 
         String[] normalized = Arrays.stream(equations).map(SystemSolver::normalize).toArray(String[]::new);
-        List<Map<String, Double>> solutions = new ArrayList<>();
         Random rand = new Random();
 
         for (int range = 5; range <= 50 && solutions.isEmpty(); range *= 2) {
@@ -105,16 +191,7 @@ public class SystemSolver {
                 } catch (Exception ignored) {}
             }
         }
-
-        if (solutions.isEmpty()) {
-            System.out.println("No solution found.");
-        } else {
-            for (int i = 0; i < solutions.size(); i++) {
-                System.out.print("Solution " + (i + 1) + ": ");
-                solutions.get(i).forEach((v, val) -> System.out.print(v + " = " + val + ", "));
-                System.out.println();
-            }
-        }
+        return solutions;
     }
 
     private static double[] newton(String[] eqs, List<String> vars, double[] x) {
@@ -197,7 +274,7 @@ public class SystemSolver {
     }
 
     private static double getCoeff(String expr, String var) {
-        Matcher m = Pattern.compile("([+-]?\\d*\\.?\\d*)" + var).matcher(expr);
+        Matcher m = Pattern.compile("([+-]?\\d*\\.?\\d*)\\*?" + var).matcher(expr);
         if (!m.find()) return 0;
         String s = m.group(1);
         return s.isEmpty() || s.equals("+") ? 1 : s.equals("-") ? -1 : Double.parseDouble(s);
@@ -0,0 +1,33 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Striped counter, safe to bump from the sampling / RCS worker threads. */
+public final class Counter {
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void inc() {
+        if (Metrics.enabled) value.increment();
+    }
+
+    public void add(long n) {
+        if (Metrics.enabled) value.add(n);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+
+    public String name() {
+        return name;
+    }
+}
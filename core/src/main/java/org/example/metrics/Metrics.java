@@ -0,0 +1,110 @@
+package org.example.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Process-wide counters and latency histograms. Everything is lock-free (LongAdder based), and when
+ * disabled the instrumentation points cost a single boolean read: no nanoTime, no adder update.
+ *
+ * Usage: keep the metric in a static final field and
+ * <pre>
+ *     long t0 = Metrics.start();
+ *     ...
+ *     SOLVE.stop(t0);
+ * </pre>
+ * Enabled by default, turn off with -Dcalc.metrics=false or {@link #setEnabled}.
+ */
+public final class Metrics {
+    static volatile boolean enabled = !"false".equals(System.getProperty("calc.metrics"));
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    /** Start timestamp for {@link Timer#stop}, or 0 when disabled. */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        TIMERS.values().forEach(Timer::reset);
+    }
+
+    /** Human readable table, only metrics that were hit. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Metrics ").append(enabled ? "(enabled)" : "(disabled)").append('\n');
+
+        Map<String, Counter> counters = new ConcurrentSkipListMap<>(COUNTERS);
+        counters.values().removeIf(c -> c.get() == 0);
+        if (!counters.isEmpty()) {
+            sb.append(String.format("%-24s %14s%n", "counter", "count"));
+            counters.forEach((name, c) -> sb.append(String.format("%-24s %14d%n", name, c.get())));
+        }
+
+        Map<String, Timer> timers = new ConcurrentSkipListMap<>(TIMERS);
+        timers.values().removeIf(t -> t.count() == 0);
+        if (!timers.isEmpty()) {
+            sb.append(String.format("%-24s %8s %10s %10s %10s %10s %10s%n",
+                    "timer (ms)", "count", "total", "mean", "p50", "p99", "max"));
+            timers.forEach((name, t) -> sb.append(String.format("%-24s %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    name, t.count(), ms(t.totalNanos()), ms(t.meanNanos()),
+                    ms(t.percentileNanos(0.50)), ms(t.percentileNanos(0.99)), ms(t.maxNanos()))));
+        }
+
+        if (counters.isEmpty() && timers.isEmpty()) sb.append("Nothing recorded yet.\n");
+        return sb.toString();
+    }
+
+    /** All metrics as a JSON object, times in nanoseconds. */
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"enabled\": ").append(enabled).append(",\n  \"counters\": {");
+        String sep = "\n";
+        for (var e : new ConcurrentSkipListMap<>(COUNTERS).entrySet()) {
+            sb.append(sep).append("    \"").append(e.getKey()).append("\": ").append(e.getValue().get());
+            sep = ",\n";
+        }
+        sb.append("\n  },\n  \"timers\": {");
+        sep = "\n";
+        for (var e : new ConcurrentSkipListMap<>(TIMERS).entrySet()) {
+            Timer t = e.getValue();
+            sb.append(sep).append("    \"").append(e.getKey()).append("\": {")
+                    .append("\"count\": ").append(t.count())
+                    .append(", \"totalNs\": ").append(t.totalNanos())
+                    .append(", \"meanNs\": ").append(t.meanNanos())
+                    .append(", \"p50Ns\": ").append(t.percentileNanos(0.50))
+                    .append(", \"p90Ns\": ").append(t.percentileNanos(0.90))
+                    .append(", \"p99Ns\": ").append(t.percentileNanos(0.99))
+                    .append(", \"maxNs\": ").append(t.maxNanos())
+                    .append('}');
+            sep = ",\n";
+        }
+        sb.append("\n  }\n}\n");
+        return sb.toString();
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with power-of-two nanosecond buckets (bucket i holds [2^i, 2^(i+1)) ns),
+ * so percentiles are accurate to within a factor of 2 which is plenty for "where does time go".
+ */
+public final class Timer {
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    Timer(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    /** Records the time since {@code startNanos} from {@link Metrics#start()}; no-op if that was 0. */
+    public void stop(long startNanos) {
+        if (startNanos == 0L || !Metrics.enabled) return;
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        if (!Metrics.enabled) return;
+        if (nanos < 0) nanos = 0;
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+        buckets[63 - Long.numberOfLeadingZeros(nanos | 1)].increment();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    public long meanNanos() {
+        long n = count();
+        return n == 0 ? 0 : totalNanos() / n;
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    /** Upper bound of the bucket containing the q-quantile, capped at the observed max. */
+    public long percentileNanos(double q) {
+        long n = count();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(q * n), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) return Math.min(i >= 62 ? Long.MAX_VALUE : (2L << i), maxNanos());
+        }
+        return maxNanos();
+    }
+
+    void reset() {
+        count.reset();
+        total.reset();
+        max.reset();
+        for (LongAdder b : buckets) b.reset();
+    }
+
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.FdtdBatch")
+@Label("FDTD Step Batch")
+@Category({"Ascendancy", "Physics"})
+@Description("FDTD time steps run for one rendered frame")
+public class FdtdBatchEvent extends Event {
+    @Label("Steps")
+    public int steps;
+
+    @Label("Simulations")
+    @Description("Grids stepped per time step (total field + incident field)")
+    public int simulations;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Time Step")
+    @Description("Time step of the main grid after the batch")
+    public int timeStep;
+
+    @Label("Cells Updated")
+    public long cells;
+
+    /** Ends the batch; fields are only filled in when the event is actually recorded. */
+    public void finish(int steps, int simulations, int width, int height, int timeStep) {
+        end();
+        if (shouldCommit()) {
+            this.steps = steps;
+            this.simulations = simulations;
+            this.width = width;
+            this.height = height;
+            this.timeStep = timeStep;
+            this.cells = (long) simulations * steps * width * height;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Custom event classes register with JFR the first time they are loaded, which costs ~0.3 s and
+ * would land on the first solve in the console. Instrumentation points therefore only create
+ * events while a recording is running (started on the command line or with jcmd); once the last
+ * recording stops they go back to creating none.
+ */
+public final class Jfr {
+    private Jfr() {}
+
+    /** Whether at least one recording is running right now. */
+    public static boolean recording() {
+        // the listener itself costs ~25 ms to register, so it waits until JFR has been started
+        return FlightRecorder.isInitialized() && !Running.IDS.isEmpty();
+    }
+
+    // ids of the running recordings, kept by a listener registered on first use
+    private static final class Running {
+        static final Set<Long> IDS = ConcurrentHashMap.newKeySet();
+
+        static {
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recorderInitialized(FlightRecorder recorder) {
+                    // called at once when JFR is already up: pick up the recordings started before
+                    for (Recording r : recorder.getRecordings()) recordingStateChanged(r);
+                }
+
+                @Override
+                public void recordingStateChanged(Recording recording) {
+                    if (recording.getState() == RecordingState.RUNNING) IDS.add(recording.getId());
+                    else IDS.remove(recording.getId());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.RcsPhase")
+@Label("RCS Phase")
+@Category({"Ascendancy", "Physics"})
+@Description("One phase of an RCS compute: rotation, facePrecompute, edgeMap or angleSweep")
+public class RcsPhaseEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Faces")
+    public int faces;
+
+    @Label("Edges")
+    public int edges;
+
+    @Label("Angles")
+    public int angles;
+
+    @Label("Frequency (GHz)")
+    public double freqGHz;
+
+    public static RcsPhaseEvent start(String phase) {
+        RcsPhaseEvent e = new RcsPhaseEvent();
+        e.phase = phase;
+        e.begin();
+        return e;
+    }
+
+    /** Ends the phase; fields are only filled in when the event is actually recorded. */
+    public void finish(int vertices, int faces, int edges, int angles, double freqGHz) {
+        end();
+        if (shouldCommit()) {
+            this.vertices = vertices;
+            this.faces = faces;
+            this.edges = edges;
+            this.angles = angles;
+            this.freqGHz = freqGHz;
+            commit();
+        }
+    }
+}
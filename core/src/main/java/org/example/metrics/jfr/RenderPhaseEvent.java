@@ -0,0 +1,53 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.RenderPhase")
+@Label("Graph Render Phase")
+@Category({"Ascendancy", "Graph"})
+@Description("One phase of a graph redraw: grid, sampling, intersections, curves or hover")
+public class RenderPhaseEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Functions")
+    public int functions;
+
+    @Label("Points")
+    @Description("Sampled points across all curves")
+    public int points;
+
+    @Label("Intersections")
+    @Description("Marked points (intersections, axis crossings, extrema)")
+    public int intersections;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    public static RenderPhaseEvent start(String phase) {
+        RenderPhaseEvent e = new RenderPhaseEvent();
+        e.phase = phase;
+        e.begin();
+        return e;
+    }
+
+    /** Ends the phase; fields are only filled in when the event is actually recorded. */
+    public void finish(int functions, int points, int intersections, double width, double height) {
+        end();
+        if (shouldCommit()) {
+            this.functions = functions;
+            this.points = points;
+            this.intersections = intersections;
+            this.width = (int) width;
+            this.height = (int) height;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.Solve")
+@Label("Solve")
+@Category({"Ascendancy", "Math"})
+@Description("Equation, system or root-scan solve")
+public class SolveEvent extends Event {
+    @Label("Kind")
+    @Description("equation, system, bisection or newton")
+    public String kind;
+
+    @Label("Method")
+    @Description("Path taken by the system solver: single, linear2x2, linear3x3 or nonlinear")
+    public String method;
+
+    @Label("Input")
+    public String input;
+
+    @Label("Equations")
+    public int equations;
+
+    @Label("Variables")
+    public int variables;
+
+    @Label("Range Start")
+    public double rangeStart;
+
+    @Label("Range End")
+    public double rangeEnd;
+
+    @Label("Step")
+    public double step;
+
+    @Label("Cached")
+    @Description("Served from the solution cache")
+    public boolean cached;
+
+    @Label("Results")
+    @Description("Roots or solutions found, -1 if the solver only printed them")
+    public int results = -1;
+
+    public static SolveEvent start(String kind) {
+        SolveEvent e = new SolveEvent();
+        e.kind = kind;
+        e.begin();
+        return e;
+    }
+
+    /** Ends a root scan over [rangeStart, rangeEnd]; fields are only filled in when the event is actually recorded. */
+    public void finish(double rangeStart, double rangeEnd, double step, int results) {
+        end();
+        if (shouldCommit()) {
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.step = step;
+            this.results = results;
+            commit();
+        }
+    }
+
+    /** Ends the solve of one equation in x, scanned over [rangeStart, rangeEnd]. */
+    public void finish(String input, double rangeStart, double rangeEnd, double step, boolean cached, int results) {
+        end();
+        if (shouldCommit()) {
+            this.input = input;
+            this.equations = 1;
+            this.variables = 1;
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.step = step;
+            this.cached = cached;
+            this.results = results;
+            commit();
+        }
+    }
+
+    /** Ends the solve of a system. */
+    public void finish(String[] equations, int variables, String method, boolean cached, int results) {
+        end();
+        if (shouldCommit()) {
+            this.input = String.join("; ", equations);
+            this.equations = equations.length;
+            this.variables = variables;
+            this.method = method;
+            this.cached = cached;
+            this.results = results;
+            commit();
+        }
+    }
+}
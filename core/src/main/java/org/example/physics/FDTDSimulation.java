@@ -1,9 +1,14 @@
 // FDTDSimulation.java
 package org.example.physics;
 
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+
 import java.util.List;
 
 public class FDTDSimulation {
+    private static final Timer UPDATE = Metrics.timer("fdtd.update");
+
     public final int width;
     public final int height;
 
@@ -72,6 +77,7 @@ public class FDTDSimulation {
      * One FDTD time step (Yee algorithm with simple lossy term).
      */
     public void update() {
+        long t0 = Metrics.start();
         timeStep++;
 
         // Save near-boundary Ez for Mur ABC
@@ -119,6 +125,7 @@ public class FDTDSimulation {
 
         // Mur absorbing boundary
         applyMurABC();
+        UPDATE.stop(t0);
     }
 
     private void applySource() {
@@ -213,12 +220,12 @@ public class FDTDSimulation {
      * Rasterize a list of visualizer SimObjects into per-cell epsilon/sigma/isObjectMask.
      * Must be called whenever simObjects in the visualizer change.
      */
-    public void rasterizeMaterials(List<FDTDVisualizer.SimObject> objects) {
+    public void rasterizeMaterials(List<SimObject> objects) {
         resetMaterials();
 
         if (objects == null || objects.isEmpty()) return;
 
-        for (FDTDVisualizer.SimObject obj : objects) {
+        for (SimObject obj : objects) {
             double epsR = 1.0;
             double cond = 0.0;
             boolean mark = true;
@@ -0,0 +1,24 @@
+package org.example.physics;
+
+// Scatterer placed in the FDTD grid; rasterized into materials by FDTDSimulation
+public class SimObject {
+    public String type;
+    public int x, y;
+    public int sizeX, sizeY;
+    public double angle;
+    public double conductivity;
+
+    public SimObject(String type, int x, int y, int sizeX, int sizeY, double angle, double conductivity) {
+        this.type = type;
+        this.x = x;
+        this.y = y;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.angle = angle;
+        this.conductivity = conductivity;
+    }
+
+    public double getEffectiveRadius() {
+        return Math.max(sizeX, sizeY) * 1.5;
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Samples y = f(x) on [x0, x1) coarsely and bisects only the intervals that need it: where the midpoint
+ * is off the chord by more than the tolerance (curvature), where y changes sign, or where f is defined
+ * at one end only (domain edge or discontinuity). Straight and gently curved stretches keep their
+ * coarse spacing, steep or oscillating ones go down to a quarter of the lattice spacing. Wide intervals are
+ * also probed off-centre so a periodic function cannot hide between dyadic sample points.
+ *
+ * The output is x-sorted; y is NaN where f is undefined, non-finite or throws.
+ */
+final class AdaptiveSampler {
+    /** Coarse spacing in lattice steps; also the first split of every tile. */
+    static final int COARSE = 32;
+    /** Finest spacing, as a fraction of a lattice step. */
+    private static final int FINEST = 4;
+    /** Intervals wider than this many lattice steps get a second, off-centre probe. */
+    private static final int PROBED = 4;
+    private static final double PROBE_AT = 0.382;
+
+    private final DoubleUnaryOperator f;
+    private final double minWidth, probeWidth, tolerance;
+    private double[] xs = new double[64], ys = new double[64];
+    private int n, evals;
+
+    private AdaptiveSampler(DoubleUnaryOperator f, double step) {
+        this.f = f;
+        this.minWidth = step / FINEST;
+        this.probeWidth = step * PROBED;
+        this.tolerance = step / 2; // half a pixel, since the lattice step is at most one
+    }
+
+    /**
+     * Samples [x0, x0 + steps * step) where {@code step} is the lattice spacing of the zoom level
+     * ({@code steps} a multiple of {@link #COARSE}). Refinement stops once about {@code budget}
+     * evaluations have been spent; the coarse pass is always done.
+     */
+    static SampleTileCache.Tile sample(DoubleUnaryOperator f, double x0, int steps, double step, int budget) {
+        return sample(f, x0, steps, step, budget, new double[]{x0, x0 + steps * step});
+    }
+
+    /**
+     * As {@link #sample(DoubleUnaryOperator, double, int, double, int)}, but only within {@code domain},
+     * sorted disjoint [a, b] pairs inside the range. Each piece is sampled from its own bounds and the
+     * coarse lattice points between them; a NaN point marks each gap, and x is never evaluated there.
+     */
+    static SampleTileCache.Tile sample(DoubleUnaryOperator f, double x0, int steps, double step, int budget,
+                                       double[] domain) {
+        AdaptiveSampler s = new AdaptiveSampler(f, step);
+        int intervals = steps / COARSE;
+        double width = COARSE * step, x1 = x0 + steps * step;
+        // the remaining budget is shared evenly by the coarse intervals
+        int share = Math.max(0, budget - intervals - 1) / intervals;
+
+        for (int p = 0; p < domain.length; p += 2) {
+            double a = domain[p], b = domain[p + 1], fa = s.eval(a);
+            if (p > 0) s.add((domain[p - 1] + a) / 2, Double.NaN);
+            for (long k = (long) Math.floor((a - x0) / width) + 1; ; k++) {
+                double c = Math.min(b, x0 + k * width), fc = s.eval(c);
+                s.add(a, fa);
+                s.refine(a, fa, c, fc, share);
+                a = c;
+                fa = fc;
+                if (c >= b) break;
+            }
+            // the range's end is the next range's start
+            if (b < x1 && b > domain[p]) s.add(b, fa);
+        }
+        return new SampleTileCache.Tile(Arrays.copyOf(s.xs, s.n), Arrays.copyOf(s.ys, s.n), s.evals);
+    }
+
+    // appends the samples strictly inside (a, b)
+    private void refine(double a, double fa, double b, double fb, int budget) {
+        if (budget < 1 || b - a <= minWidth) return;
+        double m = (a + b) / 2, fm = eval(m);
+        boolean split = needsSplit(fa, fm, fb);
+        if (!split && b - a > probeWidth) {
+            // a periodic function can match the chord at the midpoint by coincidence, rarely at both probes
+            double p = a + (b - a) * PROBE_AT, fp = eval(p);
+            split = needsSplit(fa, fp, fb, PROBE_AT);
+            if (!split) add(p, fp);
+        }
+        if (!split) {
+            add(m, fm);
+            return;
+        }
+        int half = (budget - 1) / 2;
+        refine(a, fa, m, fm, half);
+        add(m, fm);
+        refine(m, fm, b, fb, budget - 1 - half);
+    }
+
+    private boolean needsSplit(double fa, double fm, double fb) {
+        return needsSplit(fa, fm, fb, 0.5);
+    }
+
+    // fm is the value at fraction t of the interval
+    private boolean needsSplit(double fa, double fm, double fb, double t) {
+        boolean na = Double.isNaN(fa), nm = Double.isNaN(fm), nb = Double.isNaN(fb);
+        if (na || nm || nb) return !(na && nm && nb);
+        return fa * fb < 0 || Math.abs(fm - (fa + (fb - fa) * t)) > tolerance;
+    }
+
+    private double eval(double x) {
+        evals++;
+        try {
+            double y = f.applyAsDouble(x);
+            return Double.isFinite(y) ? y : Double.NaN;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private void add(double x, double y) {
+        if (n == xs.length) {
+            xs = Arrays.copyOf(xs, n * 2);
+            ys = Arrays.copyOf(ys, n * 2);
+        }
+        xs[n] = x;
+        ys[n++] = y;
+    }
+}
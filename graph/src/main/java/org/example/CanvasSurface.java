@@ -0,0 +1,58 @@
+package org.example;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+/** {@link PlotSurface} over a canvas's graphics context; FX thread only. */
+final class CanvasSurface implements PlotSurface {
+    private final GraphicsContext gc;
+
+    CanvasSurface(GraphicsContext gc) {
+        this.gc = gc;
+    }
+
+    GraphicsContext context() { return gc; }
+
+    @Override
+    public void fill(Paint paint, double w, double h) {
+        gc.setFill(paint);
+        gc.fillRect(0, 0, w, h);
+    }
+
+    @Override
+    public void stroke(Color color, double width) {
+        gc.setStroke(color);
+        gc.setLineWidth(width);
+    }
+
+    @Override
+    public void line(double x1, double y1, double x2, double y2) {
+        gc.strokeLine(x1, y1, x2, y2);
+    }
+
+    // keeps the context's dashes and alpha, so the preview can be drawn dashed
+    @Override
+    public void polyline(ColumnDecimator points) {
+        gc.beginPath();
+        boolean penDown = false;
+        for (int k = 0; k < points.size(); k++) {
+            double x = points.x(k), y = points.y(k);
+            if (Double.isNaN(x)) {
+                penDown = false;
+            } else if (penDown) {
+                gc.lineTo(x, y);
+            } else {
+                gc.moveTo(x, y);
+                penDown = true;
+            }
+        }
+        gc.stroke();
+    }
+
+    @Override
+    public void text(String s, double x, double y, Color color) {
+        gc.setFill(color);
+        gc.fillText(s, x, y);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.Arrays;
+
+/**
+ * Reduces a projected curve to the points that can show on screen before it is stroked. Consecutive
+ * points in the same pixel column are cut to the first, the lowest, the highest and the last of them,
+ * in their original order: the polyline through those covers the same pixels of the column and joins
+ * its neighbours at the same points, so the stroke looks the same while a zoomed-out oscillating curve
+ * drops to at most four points per column. Segments the renderer leaves out (jumps, undefined points)
+ * become pen-ups, stored as NaN points. Reused like {@link CurveBuffer}; FX thread only.
+ */
+final class ColumnDecimator {
+    private static final Counter POINTS = Metrics.counter("graph.stroke.points");
+    private static final Counter KEPT = Metrics.counter("graph.stroke.kept");
+
+    private double[] xs = new double[256], ys = new double[256]; // screen coordinates
+    private int size;
+
+    /**
+     * Replaces the contents with the decimated {@code pts}; the segment from point k - 1 to k is drawn
+     * unless its world y jumps by {@code threshold} or more (vertical segments are always drawn).
+     */
+    void decimate(CurveBuffer pts, double threshold) {
+        size = 0;
+        int n = pts.size();
+        int k = 0;
+        while (k < n) {
+            // the run of points from k joined by drawn segments
+            int end = k + 1;
+            while (end < n && drawn(pts, end, threshold)) end++;
+            if (end - k > 1) {
+                if (size > 0) add(Double.NaN, Double.NaN);
+                run(pts, k, end);
+            }
+            k = end;
+        }
+        POINTS.add(n);
+        KEPT.add(size);
+    }
+
+    private static boolean drawn(CurveBuffer pts, int k, double threshold) {
+        return Math.abs(pts.y(k) - pts.y(k - 1)) < threshold || Math.abs(pts.x(k) - pts.x(k - 1)) < 1e-9;
+    }
+
+    // points [from, to) in groups sharing a pixel column
+    private void run(CurveBuffer pts, int from, int to) {
+        int first = from, low = from, high = from;
+        double column = Math.floor(pts.sx(from));
+        for (int k = from + 1; k <= to; k++) {
+            if (k < to && Math.floor(pts.sx(k)) == column) {
+                if (pts.sy(k) > pts.sy(high)) high = k;
+                if (pts.sy(k) < pts.sy(low)) low = k;
+                continue;
+            }
+            group(pts, first, Math.min(low, high), Math.max(low, high), k - 1);
+            if (k < to) {
+                first = low = high = k;
+                column = Math.floor(pts.sx(k));
+            }
+        }
+    }
+
+    // first <= a <= b <= last, each added once
+    private void group(CurveBuffer pts, int first, int a, int b, int last) {
+        add(pts.sx(first), pts.sy(first));
+        if (a > first) add(pts.sx(a), pts.sy(a));
+        if (b > a && b > first) add(pts.sx(b), pts.sy(b));
+        if (last > b && last > first) add(pts.sx(last), pts.sy(last));
+    }
+
+    private void add(double x, double y) {
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        xs[size] = x;
+        ys[size++] = y;
+    }
+
+    int size() { return size; }
+    double x(int i) { return xs[i]; }
+    double y(int i) { return ys[i]; }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Points of one curve (or any point set) as parallel primitive arrays: screen x/y and world x/y.
+ * Meant to be reused: {@link #clear} keeps the arrays, so once a buffer has grown to the size a frame
+ * needs, filling it again allocates nothing.
+ */
+final class CurveBuffer {
+    private double[] sx, sy, x, y;
+    private int size;
+
+    CurveBuffer() {
+        this(256);
+    }
+
+    CurveBuffer(int capacity) {
+        sx = new double[capacity];
+        sy = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(double screenX, double screenY, double worldX, double worldY) {
+        if (size == x.length) grow(size * 2);
+        sx[size] = screenX;
+        sy[size] = screenY;
+        x[size] = worldX;
+        y[size++] = worldY;
+    }
+
+    /** Adds the world point and its screen position in {@code view}. */
+    void addWorld(double worldX, double worldY, Viewport view) {
+        add(view.screenX(worldX), view.screenY(worldY), worldX, worldY);
+    }
+
+    /** Replaces the contents with the first {@code n} world points of {@code xs}/{@code ys}, projected into {@code view}. */
+    void project(double[] xs, double[] ys, int n, Viewport view) {
+        if (n > x.length) grow(n);
+        for (int i = 0; i < n; i++) {
+            sx[i] = view.screenX(xs[i]);
+            sy[i] = view.screenY(ys[i]);
+        }
+        System.arraycopy(xs, 0, x, 0, n);
+        System.arraycopy(ys, 0, y, 0, n);
+        size = n;
+    }
+
+    private void grow(int capacity) {
+        sx = Arrays.copyOf(sx, capacity);
+        sy = Arrays.copyOf(sy, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+    }
+
+    int size() { return size; }
+    boolean isEmpty() { return size == 0; }
+    double sx(int i) { return sx[i]; }
+    double sy(int i) { return sy[i]; }
+    double x(int i) { return x[i]; }
+    double y(int i) { return y[i]; }
+}
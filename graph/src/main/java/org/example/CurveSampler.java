@@ -0,0 +1,201 @@
+package org.example;
+
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Samples the plotted entries on a pool of daemon threads, one job per entry, and publishes the
+ * result as a {@link CurveSnapshot}. The FX thread calls {@link #request} with the current viewport
+ * every frame and draws {@link #latest}; a request for a different viewport, entry list or parameter
+ * values cancels the jobs still running for the previous one. Tiles those jobs already finished stay in
+ * the tile cache. When only the entries or values changed, e.g. a parameter slider moved, an entry the
+ * previous frame already sampled exactly with the same values is carried over without a job, so only
+ * the changed curves are sampled again.
+ *
+ * An entry may report more than once (e.g. resampled tiles first, exact ones later); a snapshot is
+ * published whenever every entry of the frame has reported, and onReady is called from the worker.
+ * Once all entries are exact, one more job finds the crossings between them and publishes the snapshot
+ * again with those.
+ */
+class CurveSampler {
+    private static final Counter CANCELLED = Metrics.counter("graph.frames.cancelled");
+    private static final Counter REUSED = Metrics.counter("graph.entries.reused");
+
+    /**
+     * Samples one entry, its parameters set from {@code parameters}, for a viewport with about {@code budget}
+     * function evaluations, passing each result to {@code out}; stops early once {@code cancelled}.
+     */
+    interface EntrySampler {
+        void sample(String entry, Map<String, Double> parameters, Viewport view, int budget, BooleanSupplier cancelled,
+                    Consumer<CurveSnapshot.Entry> out);
+    }
+
+    private final EntrySampler sampler;
+    private final IntersectionFinder crossings;
+    private final int frameBudget;
+    private final ExecutorService pool;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile Runnable onReady = () -> {};
+
+    private Frame current;            // guarded by this
+    private CurveSnapshot latest;     // guarded by this
+
+    /** {@code frameBudget} evaluations per frame are shared evenly by the entries. */
+    CurveSampler(EntrySampler sampler, IntersectionFinder crossings, int frameBudget) {
+        this.sampler = sampler;
+        this.crossings = crossings;
+        this.frameBudget = frameBudget;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "graph-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void setOnReady(Runnable r) {
+        onReady = r;
+    }
+
+    synchronized CurveSnapshot latest() {
+        return latest;
+    }
+
+    /**
+     * Milliseconds each entry of the current frame took to sample, in request order; NaN while it is
+     * still sampling or when it was carried over from the previous frame.
+     */
+    synchronized double[] sampleMillis() {
+        return current == null ? new double[0] : current.millis.clone();
+    }
+
+    /** Jobs currently sampling. */
+    int running() {
+        return running.get();
+    }
+
+    /**
+     * Starts sampling {@code entries} with the slider values {@code parameters} (an immutable map) for
+     * {@code view} unless that frame is already running or done. Returns whether a new frame was started.
+     * FX thread only.
+     */
+    boolean request(Viewport view, List<String> entries, Map<String, Double> parameters, int previewIndex) {
+        Frame frame;
+        synchronized (this) {
+            if (current != null && current.matches(view, entries, parameters, previewIndex)) return false;
+            Frame previous = current;
+            if (previous != null && previous.cancel()) CANCELLED.inc();
+            frame = current = new Frame(view, List.copyOf(entries), parameters, previewIndex);
+            if (previous != null && previous.view.equals(view)) {
+                for (int i = 0; i < entries.size(); i++) {
+                    String entry = entries.get(i);
+                    int j = previous.entries.indexOf(entry);
+                    if (j >= 0 && previous.results[j] != null && previous.results[j].exact()
+                            && Parameters.values(entry, previous.parameters).equals(Parameters.values(entry, parameters))) {
+                        frame.results[i] = previous.results[j];
+                        REUSED.inc();
+                    }
+                }
+            }
+        }
+        int toSample = 0;
+        for (CurveSnapshot.Entry r : frame.results) if (r == null) toSample++;
+        if (toSample == 0) {
+            frame.publish(-1, null);
+            return true;
+        }
+        int budget = frameBudget / toSample;
+        for (int i = 0; i < entries.size(); i++) {
+            if (frame.results[i] != null) continue;
+            int index = i;
+            frame.jobs.add(pool.submit(() -> {
+                running.incrementAndGet();
+                long t0 = System.nanoTime();
+                try {
+                    sampler.sample(frame.entries.get(index), frame.parameters, view, budget, () -> frame.cancelled,
+                            entry -> frame.publish(index, entry));
+                } catch (RuntimeException ignored) {
+                    frame.publish(index, CurveSnapshot.Entry.EMPTY);
+                } finally {
+                    running.decrementAndGet();
+                    synchronized (CurveSampler.this) {
+                        frame.millis[index] = (System.nanoTime() - t0) / 1e6;
+                    }
+                }
+            }));
+        }
+        return true;
+    }
+
+    private final class Frame {
+        final Viewport view;
+        final List<String> entries;
+        final Map<String, Double> parameters;
+        final int previewIndex;
+        final CurveSnapshot.Entry[] results;
+        final double[] millis;           // guarded by CurveSampler.this
+        final List<Future<?>> jobs = new CopyOnWriteArrayList<>();
+        volatile boolean cancelled;
+        private boolean crossingsStarted; // guarded by CurveSampler.this
+
+        Frame(Viewport view, List<String> entries, Map<String, Double> parameters, int previewIndex) {
+            this.view = view;
+            this.entries = entries;
+            this.parameters = parameters;
+            this.previewIndex = previewIndex;
+            this.results = new CurveSnapshot.Entry[entries.size()];
+            this.millis = new double[entries.size()];
+            Arrays.fill(millis, Double.NaN);
+        }
+
+        boolean matches(Viewport v, List<String> e, Map<String, Double> values, int p) {
+            return view.equals(v) && entries.equals(e) && parameters.equals(values) && previewIndex == p;
+        }
+
+        // true if some entry had not reported yet
+        boolean cancel() {
+            cancelled = true;
+            for (Future<?> f : jobs) f.cancel(false);
+            for (CurveSnapshot.Entry r : results) if (r == null) return true;
+            return false;
+        }
+
+        void publish(int index, CurveSnapshot.Entry entry) {
+            CurveSnapshot snapshot;
+            synchronized (CurveSampler.this) {
+                if (cancelled) return;
+                if (index >= 0) results[index] = entry;
+                for (CurveSnapshot.Entry r : results) if (r == null) return;
+                snapshot = latest = new CurveSnapshot(view, entries, parameters, List.of(results), null, previewIndex);
+                if (!snapshot.exact() || crossingsStarted) snapshot = null;
+                else crossingsStarted = true;
+            }
+            onReady.run();
+            if (snapshot != null) findCrossings(snapshot);
+        }
+
+        private void findCrossings(CurveSnapshot snapshot) {
+            CurveSnapshot exact = snapshot;
+            jobs.add(pool.submit(() -> {
+                double[] found = crossings.find(view, entries, parameters, exact.samples(), () -> cancelled);
+                if (found == null) return;
+                synchronized (CurveSampler.this) {
+                    if (cancelled) return;
+                    latest = exact.withCrossings(found);
+                }
+                onReady.run();
+            }));
+        }
+    }
+}
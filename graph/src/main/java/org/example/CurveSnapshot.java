@@ -0,0 +1,38 @@
+package org.example;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples of every plotted entry for one viewport, as published by {@link CurveSampler}. Immutable, so
+ * the FX thread can draw it while the next one is being sampled.
+ *
+ * @param entries      the plotted strings (after session expansion), in list order
+ * @param parameters   the slider values the entries were sampled with
+ * @param samples      one per entry
+ * @param crossings    world (x, y) pairs where two entries' curves cross, flattened; null until found
+ * @param previewIndex index of the standalone preview entry, or -1
+ */
+record CurveSnapshot(Viewport viewport, List<String> entries, Map<String, Double> parameters, List<Entry> samples,
+                     double[] crossings, int previewIndex) {
+
+    /**
+     * One entry: curve points in world coordinates, plus the x positions of vertical lines from equations
+     * like x = a. Points of a y = f(x) curve are x-sorted ({@code sorted}, points outside the domain left
+     * out, missing rows of a data series marked by a point with NaN y); those of implicit, parametric and
+     * polar curves are not, and NaN points separate their pieces.
+     * {@code exact} is false while some tiles are still borrowed from another zoom level.
+     */
+    record Entry(double[] xs, double[] ys, List<Double> verticalLines, boolean exact, boolean sorted) {
+        static final Entry EMPTY = new Entry(new double[0], new double[0], List.of(), true, true);
+    }
+
+    CurveSnapshot withCrossings(double[] crossings) {
+        return new CurveSnapshot(viewport, entries, parameters, samples, crossings, previewIndex);
+    }
+
+    boolean exact() {
+        for (Entry e : samples) if (!e.exact()) return false;
+        return true;
+    }
+}
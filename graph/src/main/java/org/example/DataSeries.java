@@ -0,0 +1,337 @@
+package org.example;
+
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A measured x, y series plotted from a file ("data: measurements.csv"), read through memory-mapped
+ * columns so tens of millions of rows never sit on the heap. A CSV is converted once into a column file
+ * next to it ({@code name.csv.cols}, rebuilt when the CSV is newer; a temporary file if the directory is
+ * read-only); a column file can also be plotted directly. Its layout is a 16-byte header ("ASCOLS01",
+ * row count) then every x, then every y, as little-endian doubles. x must not decrease; a CSV with one column is plotted against the row number.
+ *
+ * On open, a min/max pyramid is built over y: level 0 holds the rows of the lowest and highest y of every
+ * {@link #BUCKET} rows, each further level the same for {@link #FAN} buckets of the one below, about 7 MB for
+ * 10^7 rows. A visible-range query returns raw rows when there are fewer than a bucket's per pixel,
+ * otherwise the min and max rows of the coarsest buckets at most a pixel wide, so its cost follows the
+ * screen, not the file.
+ * Thread-safe once open.
+ */
+final class DataSeries {
+    private static final Pattern ENTRY = Pattern.compile("^\\s*data\\s*:\\s*\"?(.+?)\"?\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final byte[] MAGIC = "ASCOLS01".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER = 16;
+    /** Rows per level-0 bucket. */
+    private static final int BUCKET = 32;
+    /** Buckets merged into one of the next level. */
+    private static final int FAN = 4;
+    private static final int CHUNK_SHIFT = 27; // doubles per mapped chunk: 1 GB
+
+    private static final Timer INDEXED = Metrics.timer("graph.data.index");
+    private static final Counter QUERIES = Metrics.counter("graph.data.queries");
+    private static final Counter POINTS = Metrics.counter("graph.data.points");
+
+    private final long rows;
+    private final DoubleBuffer[] xs, ys;
+    private final long[][] levels; // per level: row of min y, row of max y, per bucket; -1 if all NaN
+    private final BitSet[] gaps;   // per level: the buckets holding a row with NaN y
+
+    /** Whether {@code entry} is a data series ("data: file"). */
+    static boolean isEntry(String entry) {
+        return ENTRY.matcher(entry).matches();
+    }
+
+    /** The file of a data series entry. */
+    static Path path(String entry) {
+        Matcher m = ENTRY.matcher(entry);
+        if (!m.matches()) throw new IllegalArgumentException("not a data entry: " + entry);
+        return Path.of(m.group(1).trim());
+    }
+
+    /** Maps {@code file} (CSV or column file), converting a CSV first if needed, and indexes it. */
+    static DataSeries open(Path file) throws IOException {
+        long t0 = Metrics.start();
+        try {
+            Path columns = file;
+            if (!isColumnFile(file)) {
+                columns = file.toAbsolutePath().resolveSibling(file.getFileName() + ".cols");
+                if (!Files.isWritable(columns.getParent())) { // a read-only directory: convert for this run only
+                    columns = Files.createTempFile("data", ".cols");
+                    columns.toFile().deleteOnExit();
+                    convert(file, columns);
+                } else if (!Files.exists(columns) || Files.getLastModifiedTime(columns).compareTo(Files.getLastModifiedTime(file)) < 0) {
+                    convert(file, columns);
+                }
+            }
+            return new DataSeries(columns);
+        } finally {
+            INDEXED.stop(t0);
+        }
+    }
+
+    private DataSeries(Path columns) throws IOException {
+        try (FileChannel ch = FileChannel.open(columns, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            ch.read(header, 0);
+            if (!Arrays.equals(Arrays.copyOf(header.array(), MAGIC.length), MAGIC)) throw new IOException(columns + " is not a column file");
+            rows = header.getLong(8);
+            if (rows < 1 || ch.size() < HEADER + 16 * rows) throw new IOException(columns + " is truncated");
+            xs = map(ch, HEADER);
+            ys = map(ch, HEADER + 8 * rows);
+        }
+        for (long i = 1; i < rows; i++) {
+            if (x(i) < x(i - 1)) throw new IOException("x must not decrease (row " + (i + 1) + ")");
+        }
+        int count = 1;
+        for (long size = BUCKET; size < rows; size *= FAN) count++;
+        levels = new long[count][];
+        gaps = new BitSet[count];
+        pyramid();
+    }
+
+    long rows() { return rows; }
+
+    /**
+     * The series over [x0, x1], for a view {@code pixels} wide: x-sorted world points, including the
+     * nearest row beyond each end so the line reaches the edges. A run of rows with NaN y becomes one
+     * point with NaN y at the x of its first row, a gap in the line; zoomed out, a bucket holding such
+     * rows ends with one.
+     */
+    double[][] query(double x0, double x1, int pixels) {
+        QUERIES.inc();
+        long r0 = Math.max(0, lowerBound(x0) - 1), r1 = Math.min(rows - 1, lowerBound(x1));
+        long span = r1 - r0 + 1;
+        int level = -1;
+        for (long size = BUCKET; level + 1 < levels.length && span / size >= pixels; size *= FAN) level++;
+        double[] px, py;
+        int n = 0;
+        if (level < 0) { // fewer than BUCKET rows a pixel: all of them
+            px = new double[(int) span];
+            py = new double[(int) span];
+            for (long r = r0; r <= r1; r++) n = add(px, py, n, r);
+        } else {
+            long size = bucketSize(level);
+            long[] index = levels[level];
+            int b0 = (int) (r0 / size), b1 = (int) (r1 / size);
+            px = new double[3 * (b1 - b0 + 1) + 2];
+            py = new double[px.length];
+            n = add(px, py, n, r0);
+            for (int b = b0; b <= b1; b++) {
+                long lo = Math.min(index[2 * b], index[2 * b + 1]), hi = Math.max(index[2 * b], index[2 * b + 1]);
+                if (lo > r0 && lo < r1) n = add(px, py, n, lo);
+                if (hi > r0 && hi < r1 && hi != lo) n = add(px, py, n, hi);
+                if (gaps[level].get(b)) n = gap(px, py, n, x(Math.max(r0, Math.min(r1, b * size))));
+            }
+            if (r1 > r0) n = add(px, py, n, r1);
+        }
+        POINTS.add(n);
+        return new double[][]{Arrays.copyOf(px, n), Arrays.copyOf(py, n)};
+    }
+
+    /** y at {@code x}, linear between rows; NaN outside the series. */
+    double interpolate(double x) {
+        long i = lowerBound(x);
+        if (i >= rows || x < x(0)) return Double.NaN;
+        if (x(i) == x || i == 0) return y(i);
+        double xa = x(i - 1), xb = x(i);
+        return y(i - 1) + (y(i) - y(i - 1)) * (x - xa) / (xb - xa);
+    }
+
+    private int add(double[] px, double[] py, int n, long r) {
+        double y = y(r);
+        if (Double.isNaN(y)) return gap(px, py, n, x(r));
+        px[n] = x(r);
+        py[n] = y;
+        return n + 1;
+    }
+
+    // a NaN point at x, unless the last point already is one
+    private static int gap(double[] px, double[] py, int n, double x) {
+        if (n > 0 && Double.isNaN(py[n - 1])) return n;
+        px[n] = n > 0 ? Math.max(x, px[n - 1]) : x; // stays x-sorted
+        py[n] = Double.NaN;
+        return n + 1;
+    }
+
+    // first row with x >= v, or rows
+    private long lowerBound(double v) {
+        long lo = 0, hi = rows;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (x(mid) < v) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static long bucketSize(int level) {
+        long size = BUCKET;
+        for (int i = 0; i < level; i++) size *= FAN;
+        return size;
+    }
+
+    // fills levels and gaps
+    private void pyramid() {
+        long[][] out = levels;
+        long buckets = (rows + BUCKET - 1) / BUCKET;
+        long[] level = new long[(int) (2 * buckets)];
+        gaps[0] = new BitSet();
+        for (long b = 0; b < buckets; b++) {
+            long lo = -1, hi = -1;
+            for (long r = b * BUCKET; r < Math.min(rows, (b + 1) * BUCKET); r++) {
+                double y = y(r);
+                if (Double.isNaN(y)) {
+                    gaps[0].set((int) b);
+                    continue;
+                }
+                if (lo < 0 || y < y(lo)) lo = r;
+                if (hi < 0 || y > y(hi)) hi = r;
+            }
+            level[(int) (2 * b)] = lo;
+            level[(int) (2 * b + 1)] = hi;
+        }
+        out[0] = level;
+        for (int l = 1; l < out.length; l++) {
+            long[] below = out[l - 1];
+            int n = (below.length / 2 + FAN - 1) / FAN;
+            long[] merged = new long[2 * n];
+            gaps[l] = new BitSet();
+            for (int b = 0; b < n; b++) {
+                long lo = -1, hi = -1;
+                for (int c = b * FAN; c < Math.min(below.length / 2, (b + 1) * FAN); c++) {
+                    if (gaps[l - 1].get(c)) gaps[l].set(b);
+                    long cl = below[2 * c], ch = below[2 * c + 1];
+                    if (cl < 0) continue;
+                    if (lo < 0 || y(cl) < y(lo)) lo = cl;
+                    if (hi < 0 || y(ch) > y(hi)) hi = ch;
+                }
+                merged[2 * b] = lo;
+                merged[2 * b + 1] = hi;
+            }
+            out[l] = merged;
+        }
+    }
+
+    private double x(long i) { return xs[(int) (i >>> CHUNK_SHIFT)].get((int) (i & ((1 << CHUNK_SHIFT) - 1))); }
+    private double y(long i) { return ys[(int) (i >>> CHUNK_SHIFT)].get((int) (i & ((1 << CHUNK_SHIFT) - 1))); }
+
+    // the column of rows doubles at byte offset start, in chunks of at most 2^CHUNK_SHIFT doubles
+    private DoubleBuffer[] map(FileChannel ch, long start) throws IOException {
+        int chunks = (int) ((rows + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT);
+        DoubleBuffer[] out = new DoubleBuffer[chunks];
+        for (int c = 0; c < chunks; c++) {
+            long first = (long) c << CHUNK_SHIFT, count = Math.min(1L << CHUNK_SHIFT, rows - first);
+            out[c] = ch.map(FileChannel.MapMode.READ_ONLY, start + 8 * first, 8 * count).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return out;
+    }
+
+    private static boolean isColumnFile(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(MAGIC.length);
+            ch.read(head, 0);
+            return Arrays.equals(head.array(), MAGIC);
+        }
+    }
+
+    /**
+     * Writes the column file for {@code csv}, reading it memory-mapped. Fields are split on commas,
+     * semicolons, tabs or spaces; a first line that does not parse is a header, a y that does not parse
+     * is NaN (a gap), and lines whose x does not parse are skipped. x goes straight into the column
+     * file and y into a temporary file appended after it, so neither column is held in memory.
+     */
+    private static void convert(Path csv, Path columns) throws IOException {
+        Path yTemp = Files.createTempFile(columns.toAbsolutePath().getParent(), "ycol", ".tmp");
+        long count = 0;
+        int fields = -1;
+        try (FileChannel in = FileChannel.open(csv, StandardOpenOption.READ);
+             DataOutputStream xOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(columns), 1 << 16));
+             DataOutputStream yOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(yTemp), 1 << 16))) {
+            xOut.write(new byte[HEADER]);
+            byte[] field = new byte[64];
+            double[] values = new double[2];
+            for (long pos = 0, size = in.size(); pos < size; ) {
+                ByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size - pos, 1L << 30));
+                int end = buf.limit();
+                if (pos + end < size) {
+                    while (end > 0 && buf.get(end - 1) != '\n') end--; // map whole lines only
+                    if (end == 0) throw new IOException("line longer than 1 GB in " + csv);
+                }
+                int i = 0;
+                while (i < end) {
+                    // one line: up to two numeric fields
+                    int found = 0, len = 0;
+                    boolean bad = false;
+                    for (; i < end; i++) {
+                        byte b = buf.get(i);
+                        boolean separator = b == ',' || b == ';' || b == '\t' || b == ' ' || b == '\n' || b == '\r';
+                        if (!separator) {
+                            if (len < field.length) field[len++] = b;
+                            else bad = true;
+                        }
+                        if ((separator || i == end - 1) && len > 0) {
+                            if (found < 2) {
+                                try {
+                                    values[found] = bad ? Double.NaN : Double.parseDouble(new String(field, 0, len, StandardCharsets.ISO_8859_1));
+                                } catch (NumberFormatException e) {
+                                    values[found] = Double.NaN;
+                                }
+                            }
+                            found++;
+                            len = 0;
+                            bad = false;
+                        }
+                        if (b == '\n') {
+                            i++;
+                            break;
+                        }
+                    }
+                    if (found == 0) continue;
+                    if (fields < 0) {
+                        fields = Math.min(found, 2);
+                        if (Double.isNaN(values[0]) || (fields == 2 && Double.isNaN(values[1]))) continue; // header
+                    }
+                    double x = fields == 1 ? count : values[0], y = fields == 1 ? values[0] : found > 1 ? values[1] : Double.NaN;
+                    if (Double.isNaN(x)) continue;
+                    xOut.writeLong(Long.reverseBytes(Double.doubleToRawLongBits(x)));
+                    yOut.writeLong(Long.reverseBytes(Double.doubleToRawLongBits(y)));
+                    count++;
+                }
+                pos += end;
+            }
+        }
+        try {
+            if (count == 0) throw new IOException("no numeric rows in " + csv);
+            try (OutputStream out = Files.newOutputStream(columns, StandardOpenOption.APPEND)) {
+                Files.copy(yTemp, out);
+            }
+            try (FileChannel ch = FileChannel.open(columns, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN).put(MAGIC).putLong(count);
+                ch.write(header.flip(), 0);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(columns);
+            throw e;
+        } finally {
+            Files.deleteIfExists(yTemp);
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package org.example;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import org.example.math.Functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A 'where' clause compiled to a tree of conditions on x, e.g. "x in [1,5)", "0 < x < pi", "R - {5,10}",
+ * "sin(x) > 0", and combinations using and/or/not. Instead of testing every sample, {@link #intervals}
+ * turns the clause into the sorted x-intervals it admits over a range: intervals, sets and comparisons
+ * of x with a constant are solved exactly, other comparisons by scanning the boundary function on a
+ * grid and bisecting where the comparison changes. Sampling then only visits the admitted intervals.
+ *
+ * Equalities hold within a tolerance: |l - r| &le; tol at the grid points, and within tol in x of each
+ * root of l - r found between them, so x = c admits [c - tol, c + tol]. Holds exp4j
+ * expressions, so an instance must not be used by two threads at once; {@link #parse} a new one per job.
+ */
+final class Domain {
+    private static final Pattern X = Pattern.compile("(?<![A-Za-z_])x(?![A-Za-z_])");
+    private static final int BISECTIONS = 48;
+    private static final double[] NONE = new double[0];
+
+    private final Condition root;
+
+    private Domain(Condition root) {
+        this.root = root;
+    }
+
+    /** The condition after 'where'; unknown patterns admit everything. */
+    static Domain parse(String clause) {
+        return new Domain(parseCondition(clause));
+    }
+
+    /**
+     * The part of [lo, hi] the clause admits, as sorted, disjoint pairs a0, b0, a1, b1, ... with
+     * equalities holding within {@code tol}. Conditions that need solving are scanned every {@code step}.
+     */
+    double[] intervals(double lo, double hi, double step, double tol) {
+        return root.admit(lo, hi, step, tol);
+    }
+
+    /** Whether {@code x} lies in one of {@code intervals}, as returned by {@link #intervals}. */
+    static boolean contains(double[] intervals, double x) {
+        int lo = 0, hi = intervals.length / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x < intervals[2 * mid]) hi = mid - 1;
+            else if (x > intervals[2 * mid + 1]) lo = mid + 1;
+            else return true;
+        }
+        return false;
+    }
+
+    // --- Interval sets: sorted, disjoint [a, b] pairs ---
+
+    private static double[] range(double lo, double hi, double a, double b) {
+        a = Math.max(lo, a);
+        b = Math.min(hi, b);
+        return a <= b ? new double[]{a, b} : NONE;
+    }
+
+    private static double[] intersect(double[] p, double[] q) {
+        double[] out = new double[p.length + q.length];
+        int n = 0, i = 0, j = 0;
+        while (i < p.length && j < q.length) {
+            double a = Math.max(p[i], q[j]), b = Math.min(p[i + 1], q[j + 1]);
+            if (a <= b) {
+                out[n++] = a;
+                out[n++] = b;
+            }
+            if (p[i + 1] < q[j + 1]) i += 2;
+            else j += 2;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static double[] union(double[] p, double[] q) {
+        double[] out = new double[p.length + q.length];
+        int n = 0, i = 0, j = 0;
+        while (i < p.length || j < q.length) {
+            double[] s;
+            int k;
+            if (j >= q.length || (i < p.length && p[i] <= q[j])) {
+                s = p;
+                k = i;
+                i += 2;
+            } else {
+                s = q;
+                k = j;
+                j += 2;
+            }
+            if (n > 0 && s[k] <= out[n - 1]) {
+                out[n - 1] = Math.max(out[n - 1], s[k + 1]);
+            } else {
+                out[n++] = s[k];
+                out[n++] = s[k + 1];
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static double[] complement(double[] p, double lo, double hi) {
+        double[] out = new double[p.length + 2];
+        int n = 0;
+        double from = lo;
+        for (int i = 0; i < p.length; i += 2) {
+            if (p[i] > from) {
+                out[n++] = from;
+                out[n++] = p[i];
+            }
+            from = Math.max(from, p[i + 1]);
+        }
+        if (hi > from) {
+            out[n++] = from;
+            out[n++] = hi;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // the points of each of values, widened by tol
+    private static double[] points(List<Double> values, double lo, double hi, double tol) {
+        double[] out = NONE;
+        for (double v : values) out = union(out, range(lo, hi, v - tol, v + tol));
+        return out;
+    }
+
+    // --- Conditions ---
+
+    private interface Condition {
+        /** The admitted part of [lo, hi], as sorted disjoint pairs. */
+        double[] admit(double lo, double hi, double step, double tol);
+    }
+
+    private static final Condition ALL = (lo, hi, step, tol) -> range(lo, hi, lo, hi);
+
+    /** l op r. Solved exactly when one side is x and the other constant, otherwise on a grid. */
+    private static final class Comparison implements Condition {
+        final String op;
+        final Expression left, right;
+        final boolean leftX, rightX;     // side is exactly x
+        final boolean leftVar, rightVar; // side depends on x
+
+        Comparison(String op, String left, String right) {
+            this.op = op;
+            this.left = build(left);
+            this.right = build(right);
+            this.leftX = left.trim().equals("x");
+            this.rightX = right.trim().equals("x");
+            this.leftVar = X.matcher(left).find();
+            this.rightVar = X.matcher(right).find();
+        }
+
+        public double[] admit(double lo, double hi, double step, double tol) {
+            if (leftX && !rightVar) return solved(op, eval(right, 0), lo, hi, tol);
+            if (rightX && !leftVar) return solved(flip(op), eval(left, 0), lo, hi, tol);
+            double[] runs = scan(lo, hi, step, tol);
+            if (!op.equals("=") && !op.equals("==") && !op.equals("!=")) return runs;
+            // l - r may cross zero between grid points without ever being within tol of it there
+            double[] roots = NONE;
+            double a = lo, ga = diff(a);
+            for (int i = 1; a < hi; i++) {
+                double b = Math.min(hi, lo + i * step), gb = diff(b);
+                if (ga * gb < 0) {
+                    double x0 = a, x1 = b, g0 = ga;
+                    for (int k = 0; k < BISECTIONS; k++) {
+                        double m = (x0 + x1) / 2, gm = diff(m);
+                        if (g0 * gm <= 0) {
+                            x1 = m;
+                        } else {
+                            x0 = m;
+                            g0 = gm;
+                        }
+                    }
+                    roots = union(roots, range(lo, hi, (x0 + x1) / 2 - tol, (x0 + x1) / 2 + tol));
+                }
+                a = b;
+                ga = gb;
+            }
+            if (op.equals("!=")) return intersect(runs, complement(roots, lo, hi));
+            return union(runs, roots);
+        }
+
+        // l op r, holding on runs between grid points where it changes, each end bisected
+        private double[] scan(double lo, double hi, double step, double tol) {
+            double[] out = new double[16];
+            int n = 0;
+            double a = lo;
+            boolean in = test(a, tol);
+            if (in) out[n++] = a;
+            for (int i = 1; a < hi; i++) {
+                double b = Math.min(hi, lo + i * step);
+                boolean tb = test(b, tol);
+                if (tb != in) {
+                    double x0 = a, x1 = b;
+                    for (int k = 0; k < BISECTIONS; k++) {
+                        double m = (x0 + x1) / 2;
+                        if (test(m, tol) == in) x0 = m;
+                        else x1 = m;
+                    }
+                    if (n + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                    out[n++] = in ? x0 : x1;
+                    in = tb;
+                }
+                a = b;
+            }
+            if (in) out[n++] = hi;
+            return Arrays.copyOf(out, n);
+        }
+
+        private boolean test(double x, double tol) {
+            double l = eval(left, x), r = eval(right, x);
+            return switch (op) {
+                case "<" -> l < r;
+                case "<=" -> l <= r;
+                case ">" -> l > r;
+                case ">=" -> l >= r;
+                case "!=" -> Math.abs(l - r) > tol;
+                case "==", "=" -> Math.abs(l - r) <= tol;
+                default -> true;
+            };
+        }
+
+        private double diff(double x) {
+            return eval(left, x) - eval(right, x);
+        }
+
+        private static double[] solved(String op, double c, double lo, double hi, double tol) {
+            if (Double.isNaN(c)) return NONE;
+            return switch (op) {
+                case "<", "<=" -> range(lo, hi, lo, c);
+                case ">", ">=" -> range(lo, hi, c, hi);
+                case "==", "=" -> range(lo, hi, c - tol, c + tol);
+                case "!=" -> complement(range(lo, hi, c - tol, c + tol), lo, hi);
+                default -> range(lo, hi, lo, hi);
+            };
+        }
+
+        private static String flip(String op) {
+            return switch (op) {
+                case "<" -> ">";
+                case "<=" -> ">=";
+                case ">" -> "<";
+                case ">=" -> "<=";
+                default -> op;
+            };
+        }
+    }
+
+    private static final class IntervalCondition implements Condition {
+        final double lo, hi;
+        final boolean loInc, hiInc;
+
+        IntervalCondition(double lo, boolean loInc, double hi, boolean hiInc) {
+            this.lo = lo;
+            this.loInc = loInc;
+            this.hi = hi;
+            this.hiInc = hiInc;
+        }
+
+        public double[] admit(double from, double to, double step, double tol) {
+            double a = lo == Double.NEGATIVE_INFINITY ? from : loInc ? lo - tol : lo + tol;
+            double b = hi == Double.POSITIVE_INFINITY ? to : hiInc ? hi + tol : hi - tol;
+            return range(from, to, a, b);
+        }
+    }
+
+    /** x in {...} (or, excluded, R - {...}); members are constants, evaluated once. */
+    private static final class SetCondition implements Condition {
+        final List<Double> members;
+        final boolean excluded;
+
+        SetCondition(List<Double> members, boolean excluded) {
+            this.members = members;
+            this.excluded = excluded;
+        }
+
+        public double[] admit(double lo, double hi, double step, double tol) {
+            double[] in = points(members, lo, hi, tol);
+            return excluded ? complement(in, lo, hi) : in;
+        }
+    }
+
+    private static final class CompositeCondition implements Condition {
+        final boolean isAnd;
+        final List<Condition> children;
+
+        CompositeCondition(boolean isAnd, List<Condition> children) {
+            this.isAnd = isAnd;
+            this.children = children;
+        }
+
+        public double[] admit(double lo, double hi, double step, double tol) {
+            double[] out = isAnd ? range(lo, hi, lo, hi) : NONE;
+            for (Condition c : children) {
+                double[] part = c.admit(lo, hi, step, tol);
+                out = isAnd ? intersect(out, part) : union(out, part);
+                if (isAnd && out.length == 0) break;
+            }
+            return out;
+        }
+    }
+
+    private static Expression build(String s) {
+        Expression e = new ExpressionBuilder(Functions.fixImplicitMultiplication(s)).variables("x", "pi", "e").build();
+        return e.setVariable("pi", Math.PI).setVariable("e", Math.E);
+    }
+
+    private static double eval(Expression e, double x) {
+        try {
+            return e.setVariable("x", x).evaluate();
+        } catch (RuntimeException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private static List<Double> constants(String inside) {
+        List<Double> values = new ArrayList<>();
+        for (String part : inside.split("\\s*,\\s*")) {
+            try {
+                double v = build(part).setVariable("x", 0).evaluate();
+                if (!Double.isNaN(v)) values.add(v);
+            } catch (Exception ignored) {}
+        }
+        return values;
+    }
+
+    // --- Parsing ---
+
+    private static Condition parseCondition(String s) {
+        if (s == null) return ALL;
+        String normalized = s.replace('\u2264', '<')
+                .replace('\u2265', '>')
+                .replaceAll("≤", "<=")
+                .replaceAll("≥", ">=")
+                .replaceAll("\\s+", " ")
+                .trim();
+
+        // Top-level OR split
+        List<String> orParts = splitTopLevel(normalized, " or ");
+        if (orParts.size() > 1) {
+            List<Condition> children = new ArrayList<>();
+            for (String p : orParts) children.add(parseCondition(p));
+            return new CompositeCondition(false, children);
+        }
+
+        // Top-level AND split
+        List<String> andParts = splitTopLevel(normalized, " and ");
+        if (andParts.size() > 1) {
+            List<Condition> children = new ArrayList<>();
+            for (String p : andParts) children.add(parseCondition(p));
+            return new CompositeCondition(true, children);
+        }
+
+        String t = normalized.trim();
+        if (t.startsWith("not ") || t.startsWith("!")) {
+            Condition c = parseCondition(t.replaceFirst("(?i)not\\s+|!", "").trim());
+            return (lo, hi, step, tol) -> complement(c.admit(lo, hi, step, tol), lo, hi);
+        }
+
+        // NOTE: only strip outer parentheses when they are *grouping* parentheses (no comma inside).
+        // This avoids removing interval delimiters like "(2,5)" before the interval parser runs.
+        if (t.startsWith("(") && t.endsWith(")") && t.indexOf(',') == -1) {
+            return parseCondition(t.substring(1, t.length() - 1));
+        }
+
+        // Interval notation: [a,b], (a,b], [a,inf), [5,infinity[, etc.
+        if (t.length() >= 2 && (t.charAt(0) == '[' || t.charAt(0) == '(') && t.contains(",")) {
+            char left = t.charAt(0);
+            char right = t.charAt(t.length() - 1);
+            int comma = t.indexOf(',');
+            double lo = parseBoundValue(t.substring(1, comma).trim(), true);
+            double hi = parseBoundValue(t.substring(comma + 1, t.length() - 1).trim(), false);
+            boolean loInc = left == '[';
+            boolean hiInc = right == ']'; // ']' inclusive; anything else -> exclusive
+
+            // auto-swap reversed bounds so [50,10) -> [10,50)
+            if (!Double.isInfinite(lo) && !Double.isInfinite(hi) && lo > hi) {
+                double tmp = lo; lo = hi; hi = tmp;
+                boolean tmpInc = loInc; loInc = hiInc; hiInc = tmpInc;
+            }
+            return new IntervalCondition(lo, loInc, hi, hiInc);
+        }
+
+        // Set membership: x in {1,2,3}
+        if (t.matches("(?i)^x\\s*(?:in|∈)\\s*\\{.*\\}$")) {
+            return new SetCondition(constants(t.substring(t.indexOf('{') + 1, t.lastIndexOf('}')).trim()), false);
+        }
+
+        // 'in' or 'belong_to' style: x in [a,b) or x belong_to (5,10]
+        String inRegex = "(?i)^(x)\\s*(?:in|∈|belong_to|belongs_to|belongs to)\\s*";
+        if (t.matches(inRegex + "(.+)$")) {
+            return parseCondition(t.replaceFirst(inRegex, "").trim());
+        }
+
+        // Set exclusion like R - {5,10} or R-{5,10}
+        if (t.matches("(?i)^R\\s*-\\s*\\{.*\\}$")) {
+            return new SetCondition(constants(t.substring(t.indexOf('{') + 1, t.lastIndexOf('}')).trim()), true);
+        }
+
+        // Chained inequalities like "0 < x < 5" or "0 < x <= 5"
+        if (t.matches(".*[<>]=?.*\\bx\\b.*[<>]=?.*")) {
+            String[] parts = t.replaceAll("([<>]=?)", " $1 ").replaceAll("\\s+", " ").trim().split(" ");
+            int xIndex = -1;
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].equalsIgnoreCase("x")) { xIndex = i; break; }
+            }
+            if (xIndex > 0) {
+                List<Condition> children = new ArrayList<>();
+                try {
+                    // left side: e.g. "0 < x" -> parts[xIndex-2] op parts[xIndex-1]
+                    if (xIndex >= 2) children.add(new Comparison(parts[xIndex - 1], parts[xIndex - 2], "x"));
+                    // right side: e.g. "x < 5" -> parts[xIndex+1] op parts[xIndex+2]
+                    if (xIndex + 2 < parts.length) children.add(new Comparison(parts[xIndex + 1], "x", parts[xIndex + 2]));
+                    if (!children.isEmpty()) return new CompositeCondition(true, children);
+                } catch (Exception ignored) { /* fall through to other handlers */ }
+            }
+        }
+
+        // Simple comparison: try to find operator outside parentheses
+        String[] ops = {"<=", "=", "==", "!=", ">=", "<", ">"};
+        for (String op : ops) {
+            int pos = indexOfOp(t, op);
+            if (pos >= 0) {
+                String left = t.substring(0, pos).trim();
+                String right = t.substring(pos + op.length()).trim();
+                if (left.isEmpty()) left = "x";
+                if (right.isEmpty()) right = "x";
+                try {
+                    return new Comparison(op, left, right);
+                } catch (Exception ignored) {}
+            }
+        }
+
+        // a raw number is treated as equality to x
+        try {
+            double v = Double.parseDouble(t);
+            return new SetCondition(List.of(v), false);
+        } catch (Exception ignored) {}
+
+        // Unknown pattern -> accept everything (safe fallback)
+        return ALL;
+    }
+
+    // split by " and "/" or " but ignore these words inside parentheses/brackets, e.g. "[]( ... ) [23]1[p23][]":
+    // tracks the depth of (), {}, [] and only splits at depth 0
+    private static List<String> splitTopLevel(String s, String operator) {
+        List<String> out = new ArrayList<>();
+        int depth = 0, last = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '(' || c == '{' || c == '[') depth++;
+            else if (c == ')' || c == '}' || c == ']') depth = Math.max(0, depth - 1);
+            if (depth == 0 && s.regionMatches(true, i, operator, 0, operator.length())) {
+                out.add(s.substring(last, i).trim());
+                last = i + operator.length();
+                i += operator.length() - 1;
+            }
+        }
+        out.add(s.substring(last).trim());
+        return out;
+    }
+
+    // accepts numeric literals or expressions (pi, 2*pi, sqrt(2), infinity)
+    private static double parseBoundValue(String s, boolean allowNegInf) {
+        s = s.trim();
+        if (s.equalsIgnoreCase("infinity") || s.equalsIgnoreCase("inf") || s.equals("∞")) return Double.POSITIVE_INFINITY;
+        if (s.equalsIgnoreCase("-infinity") || s.equalsIgnoreCase("-inf")) return Double.NEGATIVE_INFINITY;
+        try { return Double.parseDouble(s); } catch (Exception e) {
+            try { return build(s).evaluate(); } catch (Exception ex2) { return allowNegInf ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY; }
+        }
+    }
+
+    // find operator outside parentheses
+    private static int indexOfOp(String s, String op) {
+        int depth = 0;
+        for (int i = 0; i <= s.length() - op.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '(') depth++;
+            else if (ch == ')') depth = Math.max(0, depth - 1);
+            if (depth == 0 && s.startsWith(op, i)) return i;
+        }
+        return -1;
+    }
+}
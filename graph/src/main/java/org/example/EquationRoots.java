@@ -0,0 +1,88 @@
+package org.example;
+
+import org.example.math.Algorthims;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Roots of "lhs = rhs" graph entries, drawn as vertical lines. Cached like curve tiles, per (equation,
+ * zoom level, chunk of {@link SampleTileCache#TILE} lattice steps), so a pan only solves the chunks that
+ * scrolled into view and a frame whose view is unchanged solves nothing. Each chunk is solved with the
+ * REPL's root finder, {@link Algorthims#findAllRoots}, scanning at the level's lattice spacing. All
+ * methods may be called from any thread.
+ */
+class EquationRoots {
+    private static final int CAPACITY = 4096;
+    private static final int MAX_ITER = 100;
+
+    private static final Counter HITS = Metrics.counter("graph.roots.hit");
+    private static final Counter SOLVED = Metrics.counter("graph.roots.solved");
+
+    record Key(String equation, int level, long chunk) {}
+
+    private final LinkedHashMap<Key, double[]> chunks = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /**
+     * Adds the roots of {@code equation} within [xMin, xMax] at {@code level} to {@code out}. {@code f}
+     * builds lhs - rhs and is only called, once, if some chunk is not cached yet.
+     */
+    void roots(String equation, Supplier<DoubleUnaryOperator> f, int level, double xMin, double xMax, List<Double> out) {
+        double spacing = SampleTileCache.spacing(level), width = SampleTileCache.TILE * spacing;
+        DoubleUnaryOperator diff = null;
+        for (long c = (long) Math.floor(xMin / width); c <= (long) Math.floor(xMax / width); c++) {
+            Key key = new Key(equation, level, c);
+            double[] found;
+            synchronized (chunks) {
+                found = chunks.get(key);
+            }
+            if (found != null) {
+                HITS.inc();
+            } else {
+                if (diff == null) diff = f.get();
+                found = solve(diff, c * width, (c + 1) * width, spacing);
+                SOLVED.inc();
+                synchronized (chunks) {
+                    chunks.put(key, found);
+                }
+            }
+            for (double r : found) {
+                if (r >= xMin && r <= xMax) out.add(r);
+            }
+        }
+    }
+
+    private static double[] solve(DoubleUnaryOperator f, double x0, double x1, double step) {
+        DoubleUnaryOperator safe = x -> {
+            try {
+                return f.applyAsDouble(x);
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        };
+        double tol = Math.min(1e-7, step * 1e-6);
+        // the scan starts every step from x0; a root on the chunk's end belongs to the next chunk
+        List<Double> roots = Algorthims.findAllRoots(safe, x0, x1 - step / 2, step, tol, MAX_ITER);
+        return roots.stream()
+                .mapToDouble(Double::doubleValue)
+                .filter(r -> r >= x0 && r < x1 && !isPole(safe, r, step))
+                .sorted()
+                .toArray();
+    }
+
+    // a sign change across a pole, as in tan(x) = 0, bisects to the pole: |f| grows toward it instead of shrinking
+    private static boolean isPole(DoubleUnaryOperator f, double r, double step) {
+        double at = Math.abs(f.applyAsDouble(r));
+        return !(at <= Math.abs(f.applyAsDouble(r - step / 2)) && at <= Math.abs(f.applyAsDouble(r + step / 2)));
+    }
+}
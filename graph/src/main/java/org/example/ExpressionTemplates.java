@@ -0,0 +1,58 @@
+package org.example;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed expressions shared by the sampler threads. An exp4j expression is not thread-safe, so each
+ * caller gets its own copy of a parsed template (the tokens shared, the variables its own) instead of
+ * parsing the text again; a parameter slider being dragged thus only sets new values. Templates are
+ * kept in an LRU of {@link #CAPACITY}, by text and variable names.
+ */
+final class ExpressionTemplates {
+    private static final int CAPACITY = 256;
+
+    private static final Counter PARSED = Metrics.counter("graph.expressions.parsed");
+
+    private record Key(String text, Set<String> variables) {}
+
+    private static final LinkedHashMap<Key, Expression> TEMPLATES = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Expression> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private ExpressionTemplates() {}
+
+    /**
+     * {@code text} with {@code variables}, pi, e and the names of {@code values} as variables, those set
+     * to their values; exp4j's {@link IllegalArgumentException} if it does not parse.
+     */
+    static Expression of(String text, Map<String, Double> values, String... variables) {
+        Set<String> names = new HashSet<>(values.keySet());
+        for (String v : variables) names.add(v);
+        Key key = new Key(text, names);
+        Expression template;
+        synchronized (TEMPLATES) {
+            template = TEMPLATES.get(key);
+        }
+        if (template == null) {
+            // parsed outside the lock; two threads may both parse a new text, and the later one is kept
+            template = new ExpressionBuilder(text).variables(names).variables("pi", "e").build();
+            template.setVariable("pi", Math.PI).setVariable("e", Math.E);
+            PARSED.inc();
+            synchronized (TEMPLATES) {
+                TEMPLATES.put(key, template);
+            }
+        }
+        return new Expression(template).setVariables(values);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example;
+
+import javafx.animation.AnimationTimer;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.EnumSet;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Collects redraw requests from event handlers and renders at most once per pulse. Handlers only mark
+ * why the graph is out of date; the next pulse first advances any animation, then draws once for
+ * everything marked since the last pulse: just the hover layer if the mouse is all that moved,
+ * otherwise a full frame. The timer stops itself once nothing is marked and no animation is running,
+ * so an idle graph costs nothing per pulse. FX thread only.
+ */
+final class FrameScheduler {
+    enum Reason { VIEW, DATA, HOVER, THEME }
+
+    private static final Counter REQUESTS = Metrics.counter("graph.frames.requested");
+    private static final Counter RENDERED = Metrics.counter("graph.frames.rendered");
+
+    private final EnumSet<Reason> dirty = EnumSet.noneOf(Reason.class);
+    private final BooleanSupplier animation;
+    private final Runnable render, renderHover;
+    private boolean running;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse();
+        }
+    };
+
+    /**
+     * {@code animation} advances running animations by one pulse and says whether any is still running;
+     * {@code render} draws a full frame, {@code renderHover} only the hover layer.
+     */
+    FrameScheduler(BooleanSupplier animation, Runnable render, Runnable renderHover) {
+        this.animation = animation;
+        this.render = render;
+        this.renderHover = renderHover;
+    }
+
+    /** Marks the graph out of date for {@code reason}; it is drawn on the next pulse. */
+    void invalidate(Reason reason) {
+        REQUESTS.inc();
+        dirty.add(reason);
+        start();
+    }
+
+    /** Starts pulsing for an animation; it keeps going until {@code animation} returns false. */
+    void animate() {
+        start();
+    }
+
+    private void start() {
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    private void pulse() {
+        boolean animating = animation.getAsBoolean(); // may invalidate VIEW
+        if (!dirty.isEmpty()) {
+            boolean hoverOnly = dirty.size() == 1 && dirty.contains(Reason.HOVER);
+            dirty.clear();
+            RENDERED.inc();
+            if (hoverOnly) renderHover.run();
+            else render.run();
+        }
+        if (!animating && dirty.isEmpty()) {
+            running = false;
+            timer.stop();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.example;
+
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Timings of the last {@link #CAPACITY} rendered frames, for the performance overlay: per frame the
+ * total time, the time of each redraw phase, the interval since the previous frame, the function
+ * evaluations and GC time since then, and the bytes the FX thread allocated while drawing. Fixed-size
+ * ring buffers, so recording allocates nothing. FX thread only.
+ */
+final class FrameStats {
+    static final int CAPACITY = 600;
+    /** Redraw phases, as named by the renderer's phase events. */
+    static final List<String> PHASES = List.of("grid", "sampling", "intersections", "curves", "hover");
+    /** Upper bounds in ms of the histogram buckets; the last bucket is everything slower. */
+    static final double[] BUCKETS = {1, 2, 4, 8, 16.7, 33.3, 66.7, 100};
+
+    private static final Counter EVALS = Metrics.counter("graph.samples.evaluated");
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final long[] ends = new long[CAPACITY];           // nanoTime at the end of each frame
+    private final double[] totals = new double[CAPACITY];     // ms
+    private final double[][] phases = new double[PHASES.size()][CAPACITY];
+    private final long[] evals = new long[CAPACITY], allocated = new long[CAPACITY], gcMillis = new long[CAPACITY];
+    private final boolean[] hoverOnly = new boolean[CAPACITY];
+    private long frames;   // recorded so far; the newest is at (frames - 1) % CAPACITY
+    private int depth;     // nesting of begin/end, so hover redraws within a frame count toward it
+
+    private long start, startAllocated, lastEvals = EVALS.get(), lastGc = gcMillis();
+    private final double[] current = new double[PHASES.size()];
+
+    /** Starts a frame; nested calls join the frame already running. */
+    void begin() {
+        if (depth++ > 0) return;
+        Arrays.fill(current, 0);
+        start = System.nanoTime();
+        startAllocated = allocatedBytes();
+    }
+
+    /** Adds {@code nanos} to {@code phase} of the running frame. */
+    void phase(String phase, long nanos) {
+        int i = PHASES.indexOf(phase);
+        if (i >= 0 && depth > 0) current[i] += nanos / 1e6;
+    }
+
+    /** Ends a frame started by {@link #begin}; {@code hoverOnly} if only the hover layer was drawn. */
+    void end(boolean hoverOnly) {
+        if (--depth > 0) return;
+        long now = System.nanoTime();
+        int slot = (int) (frames++ % CAPACITY);
+        ends[slot] = now;
+        totals[slot] = (now - start) / 1e6;
+        for (int i = 0; i < current.length; i++) phases[i][slot] = current[i];
+        long e = EVALS.get(), gc = gcMillis();
+        evals[slot] = e - lastEvals;
+        gcMillis[slot] = gc - lastGc;
+        lastEvals = e;
+        lastGc = gc;
+        allocated[slot] = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+        this.hoverOnly[slot] = hoverOnly;
+    }
+
+    /** Frames recorded, at most {@link #CAPACITY}. */
+    int size() {
+        return (int) Math.min(frames, CAPACITY);
+    }
+
+    // slot of the k-th newest frame, k = 0 being the newest
+    private int slot(int k) {
+        return (int) ((frames - 1 - k) % CAPACITY);
+    }
+
+    /** Frames drawn during the last second. */
+    double fps() {
+        if (frames == 0) return 0;
+        long newest = ends[slot(0)];
+        int n = 0;
+        while (n < size() && newest - ends[slot(n)] < 1_000_000_000L) n++;
+        return n;
+    }
+
+    /** The k-th newest frame's total time in ms. */
+    double total(int k) { return totals[slot(k)]; }
+    /** The k-th newest frame's time in phase {@code p} (index into {@link #PHASES}) in ms. */
+    double phase(int k, int p) { return phases[p][slot(k)]; }
+    long evaluations(int k) { return evals[slot(k)]; }
+    /** Bytes the FX thread allocated in the k-th newest frame; -1 if the JVM cannot tell. */
+    long allocated(int k) { return allocated[slot(k)]; }
+    long gcMillis(int k) { return gcMillis[slot(k)]; }
+
+    /** The newest full (not hover-only) frame, as an index for the accessors; -1 if none. */
+    int lastFull() {
+        for (int k = 0; k < size(); k++) if (!hoverOnly[slot(k)]) return k;
+        return -1;
+    }
+
+    /** Frames per bucket of {@link #BUCKETS}, plus one for slower frames. */
+    int[] histogram() {
+        int[] counts = new int[BUCKETS.length + 1];
+        for (int k = 0; k < size(); k++) {
+            int b = 0;
+            while (b < BUCKETS.length && totals[slot(k)] >= BUCKETS[b]) b++;
+            counts[b]++;
+        }
+        return counts;
+    }
+
+    /** The {@code q}-quantile of the recorded frame times in ms. */
+    double percentile(double q) {
+        int n = size();
+        if (n == 0) return 0;
+        double[] sorted = new double[n];
+        for (int k = 0; k < n; k++) sorted[k] = totals[slot(k)];
+        Arrays.sort(sorted);
+        return sorted[Math.min(n - 1, (int) (q * n))];
+    }
+
+    /**
+     * Writes the recorded frames, oldest first, to {@code graph-frames-<time>.csv} in {@code dir} and
+     * their histogram to {@code graph-frames-<time>-histogram.csv}; returns the first.
+     */
+    Path dump(Path dir) throws IOException {
+        String stem = "graph-frames-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path frameFile = dir.resolve(stem + ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(frameFile))) {
+            out.print("frame,kind,interval_ms,total_ms");
+            for (String p : PHASES) out.print("," + p + "_ms");
+            out.println(",evaluations,fx_allocated_bytes,gc_ms");
+            for (int k = size() - 1; k >= 0; k--) {
+                int s = slot(k);
+                double interval = k + 1 < size() ? (ends[s] - ends[slot(k + 1)]) / 1e6 : Double.NaN;
+                out.print(String.format(Locale.ROOT, "%d,%s,%.3f,%.3f", frames - 1 - k, hoverOnly[s] ? "hover" : "full", interval, totals[s]));
+                for (double[] p : phases) out.print(String.format(Locale.ROOT, ",%.3f", p[s]));
+                out.println("," + evals[s] + "," + allocated[s] + "," + gcMillis[s]);
+            }
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(dir.resolve(stem + "-histogram.csv")))) {
+            out.println("from_ms,to_ms,frames");
+            int[] counts = histogram();
+            for (int b = 0; b < counts.length; b++) {
+                out.println(String.format(Locale.ROOT, "%s,%s,%d", b == 0 ? "0" : BUCKETS[b - 1],
+                        b < BUCKETS.length ? BUCKETS[b] : "inf", counts[b]));
+            }
+        }
+        return frameFile;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : COLLECTORS) total += Math.max(0, gc.getCollectionTime());
+        return total;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t)) return null;
+        if (!t.isThreadAllocatedMemorySupported()) return null;
+        if (!t.isThreadAllocatedMemoryEnabled()) t.setThreadAllocatedMemoryEnabled(true);
+        return t;
+    }
+}
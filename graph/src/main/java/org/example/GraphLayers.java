@@ -0,0 +1,35 @@
+package org.example;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.layout.StackPane;
+
+/**
+ * The graph's three stacked canvases, bottom to top: the static layer (background, grid, axes and the
+ * plotted curves), redrawn only when the view, the curves or the theme change; the overlay (preview
+ * curve, debug text), cleared and redrawn with every frame; and the hover layer (marker and crosshair),
+ * the only one a plain mouse move touches. The upper two are transparent and let mouse events through.
+ */
+final class GraphLayers {
+    private final Canvas graph = new Canvas();
+    private final Canvas overlay = new Canvas();
+    private final Canvas hover = new Canvas();
+
+    GraphLayers() {
+        overlay.setMouseTransparent(true);
+        hover.setMouseTransparent(true);
+    }
+
+    /** Stacks the layers in {@code pane}, sized to fill it. */
+    void addTo(StackPane pane) {
+        for (Canvas c : new Canvas[]{graph, overlay, hover}) {
+            c.widthProperty().bind(pane.widthProperty());
+            c.heightProperty().bind(pane.heightProperty());
+            pane.getChildren().add(c);
+        }
+    }
+
+    /** The bottom canvas; mouse handlers go here. */
+    Canvas graph() { return graph; }
+    Canvas overlay() { return overlay; }
+    Canvas hover() { return hover; }
+}
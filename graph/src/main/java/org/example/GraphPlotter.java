@@ -1,18 +1,30 @@
 package org.example;
 
-import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import org.example.math.Session;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class GraphPlotter extends Application {
 
@@ -24,12 +36,20 @@ public class GraphPlotter extends Application {
     private double lastMouseX = Double.NaN, lastMouseY = Double.NaN; // track for zoom-to-mouse during animated zoom
 
     private final ObservableList<String> functions = FXCollections.observableArrayList();
-
+    // slider values of the parameters in the plotted entries; kept when a parameter disappears
+    private final Map<String, Double> parameters = new LinkedHashMap<>();
+    private final List<String> shownParameters = new ArrayList<>();
+    private final VBox parameterBox = new VBox(4);
+
+    private final GraphLayers layers = new GraphLayers();
+    private final FrameScheduler scheduler = new FrameScheduler(this::stepZoom, this::redraw,
+            () -> renderer.redrawHover(layers.hover()));
     private Canvas canvas;
 
     private static volatile String initialFunction = "sin(x)";
     private static volatile GraphPlotter instance;
     private static volatile boolean appLaunched = false;
+    private static volatile Session session;
     private Stage stage;
 
     private ListView<String> listViewRef;
@@ -47,6 +67,26 @@ public class GraphPlotter extends Application {
         }
     }
 
+    public static void setSession(Session s) {
+        session = s;
+    }
+
+    /** Redraws when a plotted entry refers to one of the changed definitions. */
+    public static void definitionsChanged(Set<String> changed) {
+        GraphPlotter plotter = instance;
+        if (!appLaunched || plotter == null) return;
+        Platform.runLater(() -> {
+            plotter.renderer.invalidateBindings();
+            plotter.refreshParameters();
+            for (String f : plotter.functions) {
+                if (Session.references(f, changed)) {
+                    plotter.scheduler.invalidate(FrameScheduler.Reason.DATA);
+                    return;
+                }
+            }
+        });
+    }
+
     public static boolean isAppLaunched() {
         return appLaunched;
     }
@@ -67,8 +107,7 @@ public class GraphPlotter extends Application {
         instance = this;
         this.stage = stage;
 
-        canvas = new Canvas();
-        GraphicsContext gc = canvas.getGraphicsContext2D();
+        canvas = layers.graph();
 
         TextField functionInput = new TextField(initialFunction);
         Button addBtn = new Button("Add");
@@ -82,17 +121,15 @@ public class GraphPlotter extends Application {
         listView.setPrefWidth(220);
         listViewRef = listView;
 
-        VBox leftBox = new VBox(8, new Label("Functions"), listView);
+        VBox leftBox = new VBox(8, new Label("Functions"), listView, parameterBox);
         leftBox.setPadding(new Insets(8));
         leftBox.setPrefWidth(220);
         leftBox.setMinWidth(80);
         leftBox.setMaxWidth(Double.MAX_VALUE);
 
-        StackPane centerPane = new StackPane(canvas);
+        StackPane centerPane = new StackPane();
         centerPane.setMinWidth(300);
-
-        canvas.widthProperty().bind(centerPane.widthProperty());
-        canvas.heightProperty().bind(centerPane.heightProperty());
+        layers.addTo(centerPane);
 
         SplitPane split = new SplitPane();
         split.getItems().addAll(leftBox, centerPane);
@@ -123,11 +160,11 @@ public class GraphPlotter extends Application {
 
         resetPosBtn.setOnAction(e -> {
             logic.resetPosition();
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.VIEW);
         });
         resetScaleBtn.setOnAction(e -> {
             logic.resetScale();
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.VIEW);
         });
 
         darkModeBtnRef.setOnAction(e -> {
@@ -135,7 +172,7 @@ public class GraphPlotter extends Application {
             themeManager.setCurrentTheme(current == GraphThemeManager.Theme.DARK ? 
                 GraphThemeManager.Theme.LIGHT : GraphThemeManager.Theme.DARK);
             themeManager.applyThemeToScene(stage.getScene());
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.THEME);
         });
 
         CheckBox zoomToMouseCheckbox = new CheckBox("Zoom to mouse");
@@ -153,7 +190,7 @@ public class GraphPlotter extends Application {
                 default -> themeManager.setCurrentTheme(GraphThemeManager.Theme.DARK);
             }
             themeManager.applyThemeToScene(stage.getScene());
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.THEME);
         });
 
         HBox controls = new HBox(10, functionInput, addBtn, updateBtn, removeBtn,
@@ -171,6 +208,31 @@ public class GraphPlotter extends Application {
 
         themeManager.applyThemeToScene(scene);
 
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.F3 && e.isShiftDown()) {
+                // frame times and histogram as CSV in the working directory, to compare builds
+                try {
+                    renderer.dumpFrameStats(Path.of(System.getProperty("user.dir")));
+                } catch (IOException ignored) {} // the overlay shows the error
+                renderer.setDebugOverlay(true);
+                scheduler.invalidate(FrameScheduler.Reason.DATA);
+            } else if (e.getCode() == KeyCode.F3) {
+                renderer.setDebugOverlay(!renderer.isDebugOverlay());
+                scheduler.invalidate(FrameScheduler.Reason.DATA);
+            }
+        });
+
+        // curves are sampled on worker threads; coalesce finished snapshots into one redraw per pulse
+        AtomicBoolean samplesRedrawQueued = new AtomicBoolean();
+        renderer.setOnSamplesReady(() -> {
+            if (samplesRedrawQueued.compareAndSet(false, true)) {
+                Platform.runLater(() -> {
+                    samplesRedrawQueued.set(false);
+                    redraw();
+                });
+            }
+        });
+
         canvas.setOnMousePressed(e -> {
             dragStartX = e.getX();
             dragStartY = e.getY();
@@ -185,7 +247,7 @@ public class GraphPlotter extends Application {
             dragStartY = e.getY();
             lastMouseX = e.getX();
             lastMouseY = e.getY();
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.VIEW);
         });
 
         canvas.setOnScroll(e -> {
@@ -196,18 +258,25 @@ public class GraphPlotter extends Application {
 
             if (logic.getZoomMode().equals("None")) {
                 logic.applyScale(baseFactor, e.getX(), e.getY(), logic.isZoomToMouse(), canvas);
-                redraw(gc);
+                scheduler.invalidate(FrameScheduler.Reason.VIEW);
             } else {
                 logic.setZoomVelocity(logic.getZoomVelocity() + delta * logic.getZoomSensitivity() * logic.getZoomFactor());
                 renderer.setMousePosition(e.getX(), e.getY());
+                scheduler.animate();
             }
         });
 
+        canvas.setOnMouseExited(e -> {
+            renderer.setMousePosition(-1, -1);
+            scheduler.invalidate(FrameScheduler.Reason.HOVER);
+        });
+
+        // the view is unchanged, so the last frame and its hit index still hold
         canvas.setOnMouseMoved(e -> {
             renderer.setMousePosition(e.getX(), e.getY());
             lastMouseX = e.getX();
             lastMouseY = e.getY();
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.HOVER);
         });
 
         stage.setTitle("Ascendancy graphing calculator");
@@ -229,13 +298,15 @@ public class GraphPlotter extends Application {
             if (scene != null) themeManager.applyThemeToScene(scene);
         });
 
+        renderer.setParameters(parameters);
+        functions.addListener((ListChangeListener<String>) c -> refreshParameters());
         functions.add(initialFunction);
 
         functionInput.textProperty().addListener((obs, oldText, newText) -> {
             renderer.setPreviewExpr(newText.trim());
             int sel = listView.getSelectionModel().getSelectedIndex();
             renderer.setPreviewReplaceIndex((sel >= 0) ? sel : -1);
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.DATA);
         });
 
         addBtn.setOnAction(e -> {
@@ -246,7 +317,7 @@ public class GraphPlotter extends Application {
                 renderer.setPreviewExpr("");
                 listView.getSelectionModel().clearSelection();
                 renderer.setPreviewReplaceIndex(-1);
-                redraw(gc);
+                scheduler.invalidate(FrameScheduler.Reason.DATA);
             }
         });
 
@@ -259,7 +330,7 @@ public class GraphPlotter extends Application {
                     renderer.setPreviewExpr("");
                     listView.getSelectionModel().clearSelection();
                     renderer.setPreviewReplaceIndex(-1);
-                    redraw(gc);
+                    scheduler.invalidate(FrameScheduler.Reason.DATA);
                 }
             }
         });
@@ -272,7 +343,7 @@ public class GraphPlotter extends Application {
                 renderer.setPreviewExpr("");
                 listView.getSelectionModel().clearSelection();
                 renderer.setPreviewReplaceIndex(-1);
-                redraw(gc);
+                scheduler.invalidate(FrameScheduler.Reason.DATA);
             }
         });
 
@@ -291,7 +362,7 @@ public class GraphPlotter extends Application {
                 renderer.setPreviewReplaceIndex(-1);
                 renderer.setPreviewExpr("");
             }
-            redraw(gc);
+            scheduler.invalidate(FrameScheduler.Reason.DATA);
         });
 
         listView.setCellFactory(lv -> {
@@ -335,7 +406,7 @@ public class GraphPlotter extends Application {
                     functionInput.clear();
                     renderer.setPreviewExpr("");
                     renderer.setPreviewReplaceIndex(-1);
-                    redraw(canvas.getGraphicsContext2D());
+                    scheduler.invalidate(FrameScheduler.Reason.DATA);
                 }
             });
             duplicateItem.setOnAction(e -> {
@@ -364,39 +435,80 @@ public class GraphPlotter extends Application {
             return cell;
         });
 
-        redraw(gc);
+        scheduler.invalidate(FrameScheduler.Reason.DATA);
+    }
 
-        new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                if (!logic.getZoomMode().equals("None") && Math.abs(logic.getZoomVelocity()) > 0.0001) {
-                    double factor = Math.exp(logic.getZoomVelocity());
-                    factor = logic.applyEasing(factor);
+    // one pulse of the animated zoom; true while it is still moving
+    private boolean stepZoom() {
+        if (logic.getZoomMode().equals("None") || Math.abs(logic.getZoomVelocity()) <= 0.0001) return false;
+        double factor = Math.exp(logic.getZoomVelocity());
+        factor = logic.applyEasing(factor);
 
-                    double mouseX = (Double.isNaN(lastMouseX) || Double.isNaN(lastMouseY)) ? canvas.getWidth() / 2.0 : lastMouseX;
-                    double mouseY = (Double.isNaN(lastMouseX) || Double.isNaN(lastMouseY)) ? canvas.getHeight() / 2.0 : lastMouseY;
+        double mouseX = (Double.isNaN(lastMouseX) || Double.isNaN(lastMouseY)) ? canvas.getWidth() / 2.0 : lastMouseX;
+        double mouseY = (Double.isNaN(lastMouseX) || Double.isNaN(lastMouseY)) ? canvas.getHeight() / 2.0 : lastMouseY;
 
-                    if (logic.isZoomToMouse()) {
-                        logic.applyScale(factor, mouseX, mouseY, true, canvas);
-                    } else {
-                        logic.setScale(logic.getScale() * factor);
-                    }
+        if (logic.isZoomToMouse()) {
+            logic.applyScale(factor, mouseX, mouseY, true, canvas);
+        } else {
+            logic.setScale(logic.getScale() * factor);
+        }
 
-                    logic.setZoomVelocity(logic.getZoomVelocity() * logic.getZoomFriction());
-                    redraw(gc);
-                }
-            }
-        }.start();
+        logic.setZoomVelocity(logic.getZoomVelocity() * logic.getZoomFriction());
+        scheduler.invalidate(FrameScheduler.Reason.VIEW);
+        return true;
+    }
+
+    /**
+     * Shows a slider for each parameter of the plotted entries. Rows are rebuilt only when the set of
+     * names changes, so a slider being dragged is never replaced; a new parameter starts at 1.
+     */
+    private void refreshParameters() {
+        renderer.setSession(session);
+        List<String> names = renderer.parameterNames(functions);
+        if (names.equals(shownParameters)) return;
+        shownParameters.clear();
+        shownParameters.addAll(names);
+        renderer.invalidateBindings(); // new names get their starting values below
+        parameterBox.getChildren().clear();
+        if (names.isEmpty()) return;
+        parameterBox.getChildren().add(new Label("Parameters"));
+        for (String name : names) {
+            double value = parameters.computeIfAbsent(name, n -> 1.0);
+            Slider slider = new Slider(-10, 10, value);
+            slider.setBlockIncrement(0.1);
+            Label valueLabel = new Label(format(value));
+            valueLabel.setMinWidth(48);
+            slider.valueProperty().addListener((obs, oldVal, newVal) -> {
+                double v = Math.round(newVal.doubleValue() * 100) / 100.0;
+                if (v == parameters.get(name)) return;
+                parameters.put(name, v);
+                renderer.invalidateBindings();
+                valueLabel.setText(format(v));
+                scheduler.invalidate(FrameScheduler.Reason.DATA);
+            });
+            slider.valueChangingProperty().addListener((obs, was, changing) -> renderer.setParameterDragging(changing));
+            HBox.setHgrow(slider, Priority.ALWAYS);
+            Label nameLabel = new Label(name);
+            nameLabel.setMinWidth(24);
+            parameterBox.getChildren().add(new HBox(6, nameLabel, slider, valueLabel));
+            Platform.runLater(() -> themeManager.styleSliderThumb(slider));
+        }
+        scheduler.invalidate(FrameScheduler.Reason.DATA);
+    }
+
+    private static String format(double v) {
+        return String.format(Locale.ROOT, "%.2f", v);
     }
 
-    private void redraw(GraphicsContext gc) {
-        renderer.redraw(gc, canvas, functions);
+    private void redraw() {
+        renderer.setSession(session);
+        renderer.redraw(layers, functions);
     }
 
     private void addFunction(String func) {
         Platform.runLater(() -> {
             functions.add(func);
-            redraw(canvas.getGraphicsContext2D());
+            scheduler.invalidate(FrameScheduler.Reason.DATA);
             if (stage != null && !stage.isShowing()) {
                 stage.show();
             }
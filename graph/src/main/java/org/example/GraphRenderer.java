@@ -0,0 +1,527 @@
+package org.example;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import org.example.math.Session;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+import org.example.metrics.jfr.Jfr;
+import org.example.metrics.jfr.RenderPhaseEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+public class GraphRenderer {
+    private static final double HOVER_RADIUS = 15;
+    private static final Timer REDRAW = Metrics.timer("graph.redraw");
+    private static final Counter STATIC_REDRAWS = Metrics.counter("graph.redraw.static");
+
+    private final GraphLogic logic;
+    private final GraphThemeManager themeManager;
+    private double mouseX = -1, mouseY = -1;
+    private volatile String previewExpr = "";
+    private volatile int previewReplaceIndex = -1;
+    private Session session;
+    private Map<String, Double> parameters = Map.of();
+    private boolean debugOverlay;
+    private final FrameStats stats = new FrameStats();
+    private String phaseName, statsMessage = "Shift+F3 saves the frame times as CSV";
+    private long phaseStart;
+
+    private final GraphSampling sampling = new GraphSampling();
+    private final SampleTileCache tiles = sampling.tiles();
+    // per-frame scratch, reused so a steady redraw allocates no point storage
+    private final List<CurveBuffer> curves = new ArrayList<>();
+    private int curveCount;
+    private final CurveBuffer intersections = new CurveBuffer(64);
+    private final HitIndex hits = new HitIndex(HOVER_RADIUS);
+    private final ColumnDecimator decimator = new ColumnDecimator();
+    // hover label, rebuilt in place on each mouse move
+    private final StringBuilder hoverLabel = new StringBuilder(32);
+    private Font labelFont;
+    private double labelCharWidth, labelHeight;
+    private CanvasSurface staticSurface, overlaySurface; // one per layer, made on first draw
+    private final List<Double> verticalLines = new ArrayList<>();
+    private final List<String> entries = new ArrayList<>();
+    // what entries was last bound from; it is bound again only when one of these changes
+    private final List<String> boundFunctions = new ArrayList<>();
+    private String boundPreview = "";
+    private int boundReplaceIndex = -1, boundPreviewIndex = -1;
+    private boolean bindingsStale = true;
+    private Map<String, Double> boundParameters = Map.of(); // the slider values entries are sampled with
+    private Viewport frameView;
+    private int previewFirst, previewEnd; // curves of the standalone preview entry
+
+    // what the static layer was last drawn from
+    private Viewport drawnView, drawnSampledFor;
+    private GraphThemeManager.Theme drawnTheme;
+    private Map<String, Double> drawnParameters;
+    private final List<String> drawnEntries = new ArrayList<>();
+    private final List<Boolean> drawnExact = new ArrayList<>();
+
+    private final CurveSampler sampler = new CurveSampler(sampling,
+            new IntersectionFinder(sampling::restricted),
+            Integer.getInteger("graph.sampleBudget", 100_000));
+
+    public GraphRenderer(GraphLogic logic, GraphThemeManager themeManager) {
+        this.logic = logic;
+        this.themeManager = themeManager;
+    }
+
+    public void setMousePosition(double x, double y) { this.mouseX = x; this.mouseY = y; }
+    public void setPreviewExpr(String expr) { this.previewExpr = expr; }
+    public void setPreviewReplaceIndex(int index) { this.previewReplaceIndex = index; }
+    public void setSession(Session session) {
+        if (session != this.session) bindingsStale = true;
+        this.session = session;
+    }
+    /** Slider values the plotted entries are sampled with; call {@link #invalidateBindings} when one changes. */
+    public void setParameters(Map<String, Double> parameters) {
+        this.parameters = parameters;
+        bindingsStale = true;
+    }
+    /** Binds the entries again on the next frame, after a parameter value or a session definition changed. */
+    public void invalidateBindings() { bindingsStale = true; }
+    /** Whether a parameter slider is being dragged; see {@link GraphSampling#setDragging}. */
+    public void setParameterDragging(boolean dragging) { sampling.setDragging(dragging); }
+    public void setDebugOverlay(boolean on) { this.debugOverlay = on; }
+    public boolean isDebugOverlay() { return debugOverlay; }
+
+    /** Writes the recorded frame times and their histogram as CSV to {@code dir}; returns the frames file. */
+    public Path dumpFrameStats(Path dir) throws IOException {
+        try {
+            Path file = stats.dump(dir);
+            statsMessage = "saved " + file.toAbsolutePath();
+            return file;
+        } catch (IOException e) {
+            statsMessage = "could not save frame times: " + e.getMessage();
+            throw e;
+        }
+    }
+    /** Called from a sampler thread whenever a new set of curve samples is ready to be drawn. */
+    public void setOnSamplesReady(Runnable r) { sampler.setOnReady(r); }
+    public String getPreviewExpr() { return previewExpr; }
+    public int getPreviewReplaceIndex() { return previewReplaceIndex; }
+
+    /**
+     * Draws a frame onto {@code layers}. The static layer is repainted only when what it shows changed
+     * since it was last drawn; the overlay and hover layers are cheap and always repainted.
+     */
+    public void redraw(GraphLayers layers, List<String> functions) {
+        long t0 = Metrics.start();
+        stats.begin();
+        try {
+            long frameStart = System.nanoTime();
+            Canvas canvas = layers.graph();
+            double w = canvas.getWidth(), h = canvas.getHeight();
+            CurveSnapshot snapshot = prepareFrame(w, h, functions);
+            int points = 0;
+            for (int i = 0; i < curveCount; i++) points += curves.get(i).size();
+            if (!staticLayerCurrent(snapshot)) {
+                drawStaticLayer(canvas.getGraphicsContext2D(), w, h, functions.size(), points);
+            }
+            drawOverlay(layers.overlay().getGraphicsContext2D(), w, h, points, snapshot, frameStart);
+            redrawHover(layers.hover());
+        } finally {
+            stats.end(false);
+            REDRAW.stop(t0);
+        }
+    }
+
+    /**
+     * Repaints only the hover layer from the last frame's hit index: the marker and label of the point
+     * under the mouse, and the crosshair. A mouse move that leaves the view alone needs nothing else.
+     */
+    public void redrawHover(Canvas canvas) {
+        stats.begin(); // joins the full frame when called from redraw
+        try {
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            double w = canvas.getWidth(), h = canvas.getHeight();
+            RenderPhaseEvent phase = startPhase("hover");
+            gc.clearRect(0, 0, w, h);
+            if (mouseX >= 0 && mouseY >= 0) {
+                Color axisColor = themeManager.getAxisColor();
+                gc.setStroke(axisColor);
+                gc.setLineWidth(1);
+                gc.setGlobalAlpha(0.35);
+                gc.strokeLine(mouseX, 0, mouseX, h);
+                gc.strokeLine(0, mouseY, w, mouseY);
+                gc.setGlobalAlpha(1.0);
+                drawHover(gc, h, axisColor, background());
+            }
+            finish(phase, curveCount, 0, intersections.size(), w, h);
+        } finally {
+            stats.end(true);
+        }
+    }
+
+    // requests sampling for this view and projects the latest snapshot into curves, intersections and the hit index
+    private CurveSnapshot prepareFrame(double w, double h, List<String> functions) {
+        intersections.clear();
+        verticalLines.clear();
+        curveCount = 0;
+
+        // sampling runs on the sampler pool; draw the latest finished snapshot, moved to this viewport
+        RenderPhaseEvent phase = startPhase("sampling");
+        if (frameView == null || !frameView.matches(w, h, logic.getScale(), logic.getOffsetX(), logic.getOffsetY())) {
+            frameView = Viewport.of(logic, w, h);
+        }
+        Viewport view = frameView;
+        int previewIndex = bindEntries(functions);
+        if (sampler.request(view, entries, boundParameters, previewIndex)) tiles.beginFrame();
+
+        CurveSnapshot snapshot = sampler.latest();
+        previewFirst = previewEnd = 0;
+        if (snapshot != null) {
+            for (int i = 0; i < snapshot.samples().size(); i++) {
+                CurveSnapshot.Entry entry = snapshot.samples().get(i);
+                if (i == snapshot.previewIndex()) previewFirst = curveCount;
+                for (Double vx : entry.verticalLines()) {
+                    if (!GraphSampling.addUnique(verticalLines, vx)) continue;
+                    CurveBuffer line = nextCurve();
+                    line.add(view.screenX(vx), 0, vx, view.worldY(0));
+                    line.add(view.screenX(vx), h, vx, view.worldY(h));
+                }
+                if (entry.xs().length > 0) nextCurve().project(entry.xs(), entry.ys(), entry.xs().length, view);
+                if (i == snapshot.previewIndex()) previewEnd = curveCount;
+            }
+        }
+        finish(phase, curveCount, 0, 0, w, h);
+
+        // intersections between plotted functions, found and refined by the sampler
+        phase = startPhase("intersections");
+        double[] crossings = snapshot == null ? null : snapshot.crossings();
+        if (crossings != null) {
+            for (int i = 0; i < crossings.length; i += 2) intersections.addWorld(crossings[i], crossings[i + 1], view);
+        }
+
+        // axis intersections & extrema
+        for (int c = 0; c < curveCount; c++) {
+            CurveBuffer pts = curves.get(c);
+            for (int k = 1; k < pts.size(); k++) {
+                double x1 = pts.x(k - 1), y1 = pts.y(k - 1), x2 = pts.x(k), y2 = pts.y(k);
+
+                // y = 0 crossing
+                if (y1 * y2 < 0) {
+                    double t = y1 / (y1 - y2);
+                    intersections.addWorld(x1 + t * (x2 - x1), 0, view);
+                }
+
+                // x = 0 crossing
+                if (x1 * x2 < 0) {
+                    double t = x1 / (x1 - x2);
+                    intersections.addWorld(0, y1 + t * (y2 - y1), view);
+                }
+
+                // extrema (slope sign change)
+                if (k > 1) {
+                    double slopePrev = y1 - pts.y(k - 2);
+                    double slopeCurr = y2 - y1;
+                    if (slopePrev * slopeCurr < 0) {
+                        intersections.add(pts.sx(k - 1), pts.sy(k - 1), x1, y1);
+                    }
+                }
+            }
+        }
+
+        // origin
+        intersections.addWorld(0, 0, view);
+
+        // vertical line intersections (from equations like x = a)
+        for (Double vx : verticalLines) {
+            for (int c = 0; c < curveCount; c++) {
+                CurveBuffer pts = curves.get(c);
+                for (int k = 1; k < pts.size(); k++) {
+                    double x1 = pts.x(k - 1), x2 = pts.x(k);
+                    if ((x1 - vx) * (x2 - vx) <= 0) {
+                        double t = Math.abs(x2 - x1) < 1e-9 ? 0 : Math.max(0, Math.min(1, (vx - x1) / (x2 - x1)));
+                        intersections.addWorld(vx, pts.y(k - 1) * (1 - t) + pts.y(k) * t, view);
+                    }
+                }
+            }
+            intersections.addWorld(vx, 0, view);
+        }
+
+        hits.build(intersections, curves, curveCount, w, h);
+        finish(phase, curveCount, 0, intersections.size(), w, h);
+        return snapshot;
+    }
+
+    /**
+     * Whether the static layer already shows this frame: same view and theme, and the same non-preview
+     * entries at the same exactness, sampled for the same viewport. Records the frame if not.
+     */
+    private boolean staticLayerCurrent(CurveSnapshot snapshot) {
+        Viewport sampledFor = snapshot == null ? null : snapshot.viewport();
+        boolean current = frameView.equals(drawnView) && Objects.equals(sampledFor, drawnSampledFor)
+                && themeManager.getCurrentTheme() == drawnTheme
+                && (snapshot == null || snapshot.parameters().equals(drawnParameters));
+        int n = 0;
+        if (snapshot != null) {
+            for (int i = 0; i < snapshot.entries().size(); i++) {
+                if (i == snapshot.previewIndex()) continue;
+                String expr = snapshot.entries().get(i);
+                boolean exact = snapshot.samples().get(i).exact();
+                if (n < drawnEntries.size()) {
+                    current &= expr.equals(drawnEntries.get(n)) && exact == drawnExact.get(n);
+                    drawnEntries.set(n, expr);
+                    drawnExact.set(n, exact);
+                } else {
+                    current = false;
+                    drawnEntries.add(expr);
+                    drawnExact.add(exact);
+                }
+                n++;
+            }
+        }
+        current &= n == drawnEntries.size();
+        while (drawnEntries.size() > n) {
+            drawnEntries.remove(drawnEntries.size() - 1);
+            drawnExact.remove(drawnExact.size() - 1);
+        }
+        drawnView = frameView;
+        drawnSampledFor = sampledFor;
+        drawnTheme = themeManager.getCurrentTheme();
+        drawnParameters = snapshot == null ? null : snapshot.parameters();
+        return current;
+    }
+
+    private void drawStaticLayer(GraphicsContext gc, double w, double h, int functions, int points) {
+        STATIC_REDRAWS.inc();
+        CanvasSurface surface = staticSurface = surface(staticSurface, gc);
+
+        RenderPhaseEvent phase = startPhase("grid");
+        PlotPainter.grid(surface, frameView, logic, themeManager);
+        finish(phase, functions, 0, 0, w, h);
+
+        // draw functions; the standalone preview goes on the overlay
+        phase = startPhase("curves");
+        for (int i = 0; i < curveCount; i++) {
+            if (i >= previewFirst && i < previewEnd) continue;
+            surface.stroke(PlotPainter.color(i), PlotPainter.CURVE_WIDTH);
+            PlotPainter.curve(surface, curves.get(i), frameView, decimator);
+        }
+        finish(phase, curveCount, points, intersections.size(), w, h);
+    }
+
+    private void drawOverlay(GraphicsContext gc, double w, double h, int points, CurveSnapshot snapshot, long frameStart) {
+        gc.clearRect(0, 0, w, h);
+        if (previewEnd > previewFirst) {
+            CanvasSurface surface = overlaySurface = surface(overlaySurface, gc);
+            gc.setLineDashes(8);
+            gc.setGlobalAlpha(0.6);
+            surface.stroke(Color.gray(0.8), PlotPainter.CURVE_WIDTH);
+            for (int i = previewFirst; i < previewEnd; i++) PlotPainter.curve(surface, curves.get(i), frameView, decimator);
+        }
+        gc.setLineDashes(null);
+        gc.setGlobalAlpha(1.0);
+        if (debugOverlay) {
+            drawDebugOverlay(gc, themeManager.getTextColor(), background(), points, snapshot, frameView,
+                    (System.nanoTime() - frameStart) / 1e6);
+        }
+    }
+
+    // the layer's surface, kept across frames while it draws on the same context
+    private static CanvasSurface surface(CanvasSurface current, GraphicsContext gc) {
+        return current != null && current.context() == gc ? current : new CanvasSurface(gc);
+    }
+
+    private Color background() {
+        Paint bgPaint = themeManager.getBackgroundPaint();
+        return (bgPaint instanceof Color) ? (Color) bgPaint : Color.BLACK;
+    }
+
+    // a cleared buffer for the next curve of this frame, reusing last frame's
+    private CurveBuffer nextCurve() {
+        if (curveCount == curves.size()) curves.add(new CurveBuffer());
+        CurveBuffer c = curves.get(curveCount++);
+        c.clear();
+        return c;
+    }
+
+    private void drawDebugOverlay(GraphicsContext gc, Color textColor, Color bg, int points,
+                                  CurveSnapshot snapshot, Viewport view, double frameMs) {
+        String state = snapshot == null ? "none" : !snapshot.viewport().equals(view) ? "stale"
+                : snapshot.exact() ? "exact" : "approx";
+        List<String> lines = new ArrayList<>(List.of(
+                String.format("frame %.1f ms  points %d  scale %.4g  level %d", frameMs, points,
+                        logic.getScale(), SampleTileCache.levelFor(logic.getScale())),
+                String.format("snapshot %s  sampling jobs %d", state, sampler.running()),
+                tiles.describe(),
+                String.format("fps %.0f  frame time p50 %.1f  p95 %.1f  max %.1f ms over %d frames", stats.fps(),
+                        stats.percentile(0.5), stats.percentile(0.95), stats.percentile(1), stats.size())));
+
+        // the last full frame, phase by phase
+        int last = stats.lastFull();
+        if (last >= 0) {
+            StringBuilder phases = new StringBuilder();
+            for (int p = 0; p < FrameStats.PHASES.size(); p++) {
+                phases.append(String.format("%s %.2f  ", FrameStats.PHASES.get(p), stats.phase(last, p)));
+            }
+            lines.add(phases.append("ms").toString());
+            long bytes = stats.allocated(last);
+            lines.add(String.format("evaluations %d  FX thread allocated %s  GC %d ms", stats.evaluations(last),
+                    bytes < 0 ? "n/a" : bytes < 10_000 ? bytes + " B" : bytes / 1024 + " KB", stats.gcMillis(last)));
+        }
+
+        // how long each entry took to sample on the worker pool
+        double[] millis = sampler.sampleMillis();
+        for (int i = 0; i < Math.min(millis.length, entries.size()) && i < 8; i++) {
+            String expr = entries.get(i).length() > 48 ? entries.get(i).substring(0, 47) + "\u2026" : entries.get(i);
+            lines.add(Double.isNaN(millis[i]) ? String.format("  %8s  %s", "-", expr) : String.format("  %5.1f ms  %s", millis[i], expr));
+        }
+        if (entries.size() > 8) lines.add(String.format("  and %d more", entries.size() - 8));
+        lines.add(statsMessage);
+
+        // rolling frame-time histogram under the text
+        int[] counts = stats.histogram();
+        int max = 1;
+        for (int c : counts) max = Math.max(max, c);
+        double barsTop = 20 + 16 * lines.size(), barHeight = 40, barWidth = 440.0 / counts.length;
+
+        double width = 440;
+        for (String line : lines) width = Math.max(width, line.length() * 7 + 12);
+        gc.setFill(bg.deriveColor(0, 1, 1, 0.8));
+        gc.fillRect(4, 4, width, barsTop + barHeight + 16);
+        gc.setFill(textColor);
+        for (int i = 0; i < lines.size(); i++) gc.fillText(lines.get(i), 10, 20 + 16 * i);
+        for (int b = 0; b < counts.length; b++) {
+            double x = 10 + b * barWidth, bh = barHeight * counts[b] / max;
+            gc.setGlobalAlpha(0.6);
+            gc.fillRect(x, barsTop + barHeight - bh, barWidth - 4, bh);
+            gc.setGlobalAlpha(1.0);
+            String label = b < FrameStats.BUCKETS.length ? String.format("<%.0f", FrameStats.BUCKETS[b]) : "more";
+            gc.fillText(label, x, barsTop + barHeight + 12);
+        }
+    }
+
+    private RenderPhaseEvent startPhase(String name) {
+        phaseName = name;
+        phaseStart = System.nanoTime();
+        return Jfr.recording() ? RenderPhaseEvent.start(name) : null;
+    }
+
+    private void finish(RenderPhaseEvent phase, int functions, int points, int intersections, double w, double h) {
+        stats.phase(phaseName, System.nanoTime() - phaseStart);
+        if (phase != null) phase.finish(functions, points, intersections, w, h);
+    }
+
+    private void drawHover(GraphicsContext gc, double h, Color axisColor, Color bg) {
+        int i = hits.marker(mouseX, mouseY);
+        if (i >= 0) {
+            drawHoverPoint(gc, intersections.sx(i), intersections.sy(i), intersections.x(i), intersections.y(i), axisColor, bg);
+            return;
+        }
+
+        long hit = hits.segment(mouseX, mouseY);
+        if (hit < 0) return;
+        CurveBuffer pts = curves.get((int) (hit >>> 32));
+        int k = (int) hit;
+        double sx1 = pts.sx(k - 1), sy1 = pts.sy(k - 1);
+        double dx = pts.sx(k) - sx1, dy = pts.sy(k) - sy1;
+        if (Math.abs(dx) < 1e-6) {
+            drawHoverPoint(gc, sx1, mouseY, pts.x(k - 1), (h / 2 + logic.getOffsetY() - mouseY) / logic.getScale(), axisColor, bg);
+        } else {
+            // under the mouse on flat segments; on steep ones (parametric, implicit) the nearest point
+            double t = Math.abs(dy) <= Math.abs(dx) ? (mouseX - sx1) / dx
+                    : Math.max(0, Math.min(1, ((mouseX - sx1) * dx + (mouseY - sy1) * dy) / (dx * dx + dy * dy)));
+            drawHoverPoint(gc, sx1 + t * dx, sy1 + t * dy, pts.x(k - 1) * (1 - t) + pts.x(k) * t, pts.y(k - 1) * (1 - t) + pts.y(k) * t, axisColor, bg);
+        }
+    }
+
+    // fills entries with the functions and the preview, definitions expanded, and takes the slider values,
+    // unless they are what entries was bound from; returns the index of a standalone preview, or -1
+    private int bindEntries(List<String> functions) {
+        String preview = previewExpr;
+        int replaceIndex = previewReplaceIndex;
+        if (!bindingsStale && replaceIndex == boundReplaceIndex && preview.equals(boundPreview)
+                && sameStrings(functions, boundFunctions)) {
+            return boundPreviewIndex;
+        }
+        entries.clear();
+        for (int fi = 0; fi < functions.size(); fi++) {
+            String expr = (replaceIndex == fi && !preview.isEmpty()) ? preview : functions.get(fi);
+            entries.add(expand(expr));
+        }
+        // standalone preview (not replacing any existing function)
+        boundPreviewIndex = -1;
+        if (!preview.isEmpty() && replaceIndex < 0) {
+            boundPreviewIndex = entries.size();
+            entries.add(expand(preview));
+        }
+        boundFunctions.clear();
+        boundFunctions.addAll(functions);
+        boundPreview = preview;
+        boundReplaceIndex = replaceIndex;
+        boundParameters = Map.copyOf(parameters);
+        bindingsStale = false;
+        return boundPreviewIndex;
+    }
+
+    // element-wise, without the iterator of List.equals
+    private static boolean sameStrings(List<String> a, List<String> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).equals(b.get(i))) return false;
+        }
+        return true;
+    }
+
+    /** The parameters of {@code functions} after expanding session definitions, for their sliders. */
+    public List<String> parameterNames(List<String> functions) {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (String f : functions) names.addAll(Parameters.names(expand(f)));
+        return List.copyOf(names);
+    }
+
+    private String expand(String expr) {
+        if (session != null && !DataSeries.isEntry(expr)) { // leave file names alone
+            try { return session.expand(expr); } catch (Exception ignored) {}
+        }
+        return expr;
+    }
+
+    private void drawHoverPoint(GraphicsContext gc, double screenX, double screenY, double worldX, double worldY, Color textColor, Color bg) {
+        gc.setFill(textColor);
+        gc.fillOval(screenX - 4, screenY - 4, 8, 8);
+        hoverLabel.setLength(0);
+        appendFixed2(hoverLabel.append('('), worldX);
+        appendFixed2(hoverLabel.append(", "), worldY);
+        hoverLabel.append(')');
+        Font font = gc.getFont();
+        if (!font.equals(labelFont)) {
+            // measured once per font; a label's width is then its length times the average character width
+            Text sample = new Text("(-000.00, -000.00)");
+            sample.setFont(font);
+            labelCharWidth = sample.getLayoutBounds().getWidth() / sample.getText().length();
+            labelHeight = sample.getLayoutBounds().getHeight();
+            labelFont = font;
+        }
+        double tw = hoverLabel.length() * labelCharWidth, th = labelHeight;
+        gc.setFill(bg.deriveColor(0, 1, 1, 0.8));
+        gc.fillRect(screenX + 8, screenY - th, tw + 8, th + 4);
+        gc.setFill(textColor);
+        gc.fillText(hoverLabel.toString(), screenX + 12, screenY - 2);
+    }
+
+    // x with two decimals as %.2f prints it, but without a Formatter and without a sign on -0.00
+    private static StringBuilder appendFixed2(StringBuilder sb, double x) {
+        if (!Double.isFinite(x) || Math.abs(x) >= 1e15) return sb.append(String.format(Locale.ROOT, "%.2f", x));
+        long v = Math.round(Math.abs(x) * 100);
+        if (x < 0 && v != 0) sb.append('-');
+        sb.append(v / 100).append('.');
+        if (v % 100 < 10) sb.append('0');
+        return sb.append(v % 100);
+    }
+}
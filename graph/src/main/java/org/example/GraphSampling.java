@@ -0,0 +1,373 @@
+package org.example;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import org.example.math.Functions;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Turns one plotted entry into curve samples for a viewport: y = f(x) from the tile cache, equations
+ * as the x positions of their roots, implicit equations in x and y, parametric or polar curves, data
+ * series read from files and families of any of these, each through its cache. Free of JavaFX, so the window and the headless exporter share it; all
+ * methods may be called from any thread.
+ *
+ * Parameters are exp4j variables set to the slider values; cache keys have the values written in
+ * ({@link Parameters#bind}). While a slider is dragged ({@link #setDragging}) every position is new and
+ * sampled once, so entries with parameters go through scratch caches, dropped when the drag ends,
+ * rather than evicting the tiles and curves that will be drawn again.
+ */
+final class GraphSampling implements CurveSampler.EntrySampler {
+    private static final Pattern Y = Pattern.compile("(?<![A-Za-z_])y(?![A-Za-z_])");
+    private static final Counter FAMILY_MEMBERS = Metrics.counter("graph.family.members");
+    /** Family members sampled by one worker with one compiled expression. */
+    private static final int FAMILY_CHUNK = 16;
+
+    private static final long SCRATCH_TILE_BYTES = 8L * 1024 * 1024;
+
+    private final Caches caches = new Caches(new SampleTileCache());
+    private volatile Caches scratch; // while a slider is dragged
+    private static final int DATA_CAPACITY = 8;
+    // data series by file and modification time, least recently plotted first; a future, so a series
+    // still being opened is shared by the threads that want it without holding the map's lock
+    private final Map<DataKey, CompletableFuture<DataSeries>> dataSeries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DataKey, CompletableFuture<DataSeries>> eldest) {
+            return size() > DATA_CAPACITY;
+        }
+    };
+
+    private record DataKey(Path path, FileTime modified) {}
+
+    private record Caches(SampleTileCache tiles, EquationRoots equationRoots, ImplicitCurves implicitCurves,
+                          ParametricCurves parametricCurves) {
+        Caches(SampleTileCache tiles) {
+            this(tiles, new EquationRoots(), new ImplicitCurves(), new ParametricCurves());
+        }
+    }
+
+    SampleTileCache tiles() { return caches.tiles(); }
+
+    /** Starts or ends a slider drag: entries with parameters are sampled through fresh scratch caches meanwhile. */
+    void setDragging(boolean dragging) {
+        scratch = dragging ? new Caches(new SampleTileCache(SCRATCH_TILE_BYTES)) : null;
+    }
+
+    @Override
+    public void sample(String expr, Map<String, Double> parameters, Viewport view, int budget, BooleanSupplier cancelled,
+                       Consumer<CurveSnapshot.Entry> out) {
+        Map<String, Double> values = Parameters.values(expr, parameters);
+        Caches dragged = scratch;
+        sample(expr, values, values.isEmpty() || dragged == null ? caches : dragged, view, budget, cancelled, out);
+    }
+
+    // expr with its parameters set to values, through the caches c
+    private void sample(String expr, Map<String, Double> values, Caches c, Viewport view, int budget,
+                        BooleanSupplier cancelled, Consumer<CurveSnapshot.Entry> out) {
+        if (DataSeries.isEntry(expr)) {
+            double[][] xy = series(expr).query(view.worldX(-2), view.worldX(view.width() + 2), (int) Math.ceil(view.width()));
+            out.accept(new CurveSnapshot.Entry(xy[0], xy[1], List.of(), true, true));
+            return;
+        }
+        if (Parameters.isFamily(expr)) {
+            // bound as text, since the bounds may use parameters; the body is compiled once per chunk anyway
+            sampleFamily(Parameters.family(Parameters.bind(expr, values)), c, view, budget, cancelled, out);
+            return;
+        }
+        // treat strings with a 'where' clause as functions with domain restrictions
+        String[] whereSplitForEq = expr.split("(?i)\\bwhere\\b", 2);
+        if (ParametricCurves.isCurve(whereSplitForEq[0])) {
+            out.accept(unsorted(c.parametricCurves().sample(expr, values, view, budget)));
+            return;
+        }
+        boolean isEquation = whereSplitForEq[0].contains("=");
+        if (isEquation && Y.matcher(whereSplitForEq[0]).find()) {
+            String[] sides = whereSplitForEq[0].split("=", 2);
+            String key = Parameters.bind(whereSplitForEq[0], values).replaceAll("\\s+", "");
+            double[] xy = c.implicitCurves().trace(key, () -> implicit(sides[0], sides[1], values), view, cancelled);
+            if (xy != null) out.accept(unsorted(xy));
+            return;
+        }
+        if (isEquation) {
+            List<Double> verticalLines = new ArrayList<>();
+            handleEquation(whereSplitForEq[0], values, c.equationRoots(), verticalLines, view);
+            out.accept(new CurveSnapshot.Entry(new double[0], new double[0], List.copyOf(verticalLines), true, true));
+            return;
+        }
+
+        // tiles of the viewport's level covering the canvas plus a 2 px overscan
+        SampleTileCache tiles = c.tiles();
+        String key = Parameters.bind(expr, values);
+        double overscan = 2;
+        int level = SampleTileCache.levelFor(view.scale());
+        double xMin = view.worldX(-overscan), xMax = view.worldX(view.width() + overscan);
+        double tileWidth = SampleTileCache.TILE * SampleTileCache.spacing(level);
+        long tMin = (long) Math.floor(xMin / tileWidth), tMax = (long) Math.floor(xMax / tileWidth);
+        SampleTileCache.Tile[] parts = new SampleTileCache.Tile[(int) (tMax - tMin + 1)];
+        boolean[] exactPart = new boolean[parts.length];
+
+        // first pass: cached tiles, or ones borrowed from a nearby level, so a zoom has something to show
+        boolean exact = true, complete = true;
+        for (int i = 0; i < parts.length; i++) {
+            SampleTileCache.Key tileKey = new SampleTileCache.Key(key, level, tMin + i);
+            parts[i] = tiles.get(tileKey);
+            exactPart[i] = parts[i] != null;
+            if (parts[i] == null) {
+                exact = false;
+                parts[i] = tiles.approximate(tileKey);
+                complete &= parts[i] != null;
+            }
+        }
+        if (exact) {
+            out.accept(entry(parts, xMin, xMax, true));
+            return;
+        }
+        if (complete) out.accept(entry(parts, xMin, xMax, false));
+
+        // second pass: sample what is still missing or borrowed, unless the frame went stale
+        Plot plot = compile(expr, values);
+        double tol = domainTolerance(view);
+        int tileBudget = budget / parts.length;
+        for (int i = 0; i < parts.length; i++) {
+            if (cancelled.getAsBoolean()) return;
+            if (!exactPart[i]) {
+                parts[i] = tiles.compute(new SampleTileCache.Key(key, level, tMin + i), plot.f(), plot.domain(), tol, tileBudget);
+            }
+        }
+        out.accept(entry(parts, xMin, xMax, true));
+    }
+
+    /**
+     * All members of a family as one entry, pieces separated by NaN. A family of y = f(x) is sampled in
+     * parallel chunks of members, each compiling the body once with the family variable as a variable
+     * and setting it per member, into the tile cache under each member's own expression, so a member
+     * plotted on its own shares the tiles. Other kinds are sampled member by member.
+     */
+    private void sampleFamily(Parameters.Family family, Caches c, Viewport view, int budget, BooleanSupplier cancelled,
+                              Consumer<CurveSnapshot.Entry> out) {
+        int n = family.values().length;
+        FAMILY_MEMBERS.add(n);
+        CurveSnapshot.Entry[] members = new CurveSnapshot.Entry[n];
+        int memberBudget = Math.max(1, budget / n);
+        String[] head = family.body().split("(?i)\\bwhere\\b", 2);
+        if (ParametricCurves.isCurve(head[0]) || head[0].contains("=") || Parameters.isFamily(family.body())) {
+            for (int i = 0; i < n && !cancelled.getAsBoolean(); i++) {
+                int index = i;
+                sample(family.member(i), Map.of(), c, view, memberBudget, cancelled, e -> members[index] = e);
+            }
+        } else {
+            SampleTileCache tiles = c.tiles();
+            double overscan = 2;
+            int level = SampleTileCache.levelFor(view.scale());
+            double xMin = view.worldX(-overscan), xMax = view.worldX(view.width() + overscan);
+            double tileWidth = SampleTileCache.TILE * SampleTileCache.spacing(level);
+            long tMin = (long) Math.floor(xMin / tileWidth), tMax = (long) Math.floor(xMax / tileWidth);
+            double tol = domainTolerance(view);
+            int tileBudget = Math.max(1, memberBudget / (int) (tMax - tMin + 1));
+            IntStream.range(0, (n + FAMILY_CHUNK - 1) / FAMILY_CHUNK).parallel().forEach(chunk -> {
+                Expression body = null; // compiled on the first missing tile
+                for (int i = chunk * FAMILY_CHUNK; i < Math.min(n, (chunk + 1) * FAMILY_CHUNK); i++) {
+                    if (cancelled.getAsBoolean()) return;
+                    String member = family.member(i);
+                    Domain domain = null;
+                    SampleTileCache.Tile[] parts = new SampleTileCache.Tile[(int) (tMax - tMin + 1)];
+                    for (int p = 0; p < parts.length; p++) {
+                        SampleTileCache.Key key = new SampleTileCache.Key(member, level, tMin + p);
+                        parts[p] = tiles.get(key);
+                        if (parts[p] != null) continue;
+                        if (body == null) {
+                            body = new ExpressionBuilder(Functions.fixImplicitMultiplication(head[0].trim()))
+                                    .variables("x", family.variable(), "pi", "e")
+                                    .build();
+                            body.setVariable("pi", Math.PI).setVariable("e", Math.E);
+                        }
+                        if (domain == null && head.length == 2) domain = Domain.parse(member.split("(?i)\\bwhere\\b", 2)[1].trim());
+                        Expression f = body.setVariable(family.variable(), family.values()[i]);
+                        parts[p] = tiles.compute(key, x -> f.setVariable("x", x).evaluate(), domain, tol, tileBudget);
+                    }
+                    members[i] = entry(parts, xMin, xMax, true);
+                }
+            });
+        }
+        if (cancelled.getAsBoolean()) return;
+
+        // one entry: members joined with NaN breaks, and all their vertical lines
+        int size = 0;
+        boolean exact = true;
+        List<Double> verticalLines = new ArrayList<>();
+        for (CurveSnapshot.Entry e : members) {
+            if (e == null) continue;
+            size += e.xs().length + 1;
+            exact &= e.exact();
+            for (Double vx : e.verticalLines()) addUnique(verticalLines, vx);
+        }
+        double[] xs = new double[size], ys = new double[size];
+        int k = 0;
+        for (CurveSnapshot.Entry e : members) {
+            if (e == null || e.xs().length == 0) continue;
+            if (k > 0) xs[k] = ys[k++] = Double.NaN;
+            System.arraycopy(e.xs(), 0, xs, k, e.xs().length);
+            System.arraycopy(e.ys(), 0, ys, k, e.ys().length);
+            k += e.xs().length;
+        }
+        out.accept(new CurveSnapshot.Entry(Arrays.copyOf(xs, k), Arrays.copyOf(ys, k), List.copyOf(verticalLines), exact, false));
+    }
+
+    // the tiles' points within [xMin, xMax] plus the nearest one beyond each end, so the curve reaches the edges
+    private static CurveSnapshot.Entry entry(SampleTileCache.Tile[] parts, double xMin, double xMax, boolean exact) {
+        int capacity = 0;
+        for (SampleTileCache.Tile tile : parts) capacity += tile.size();
+        double[] xs = new double[capacity], ys = new double[capacity];
+        int n = 0;
+        boolean done = false;
+        for (SampleTileCache.Tile tile : parts) {
+            for (int i = 0; i < tile.size() && !done; i++) {
+                double x = tile.xs()[i], y = tile.ys()[i];
+                if (Double.isNaN(y)) continue; // skip points outside domain
+                if (x < xMin) n = 0; // keep only the last point before the range
+                else done = x > xMax;
+                xs[n] = x;
+                ys[n++] = y;
+            }
+        }
+        return new CurveSnapshot.Entry(Arrays.copyOf(xs, n), Arrays.copyOf(ys, n), List.of(), exact, true);
+    }
+
+    // a curve that is not y = f(x), from world x, y pairs
+    private static CurveSnapshot.Entry unsorted(double[] xy) {
+        double[] xs = new double[xy.length / 2], ys = new double[xy.length / 2];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = xy[2 * i];
+            ys[i] = xy[2 * i + 1];
+        }
+        return new CurveSnapshot.Entry(xs, ys, List.of(), true, false);
+    }
+
+    // 'where' equalities hold within two lattice steps of the viewport's level, so tiles depend only on their key
+    private static double domainTolerance(Viewport view) {
+        return 2.0 / Math.max(1.0, Math.scalb(1.0, SampleTileCache.levelFor(view.scale())));
+    }
+
+    /**
+     * y = f(x) for a plotted entry with its parameters set to {@code values}, and its 'where' clause
+     * compiled to a {@link Domain} (null if none). Each call gets its own expressions, so the result may
+     * be used on a sampler thread.
+     */
+    private static Plot compile(String expr, Map<String, Double> values) {
+        String[] parts = expr.split("(?i)\\bwhere\\b", 2);
+        String baseExpr = Functions.fixImplicitMultiplication(parts[0].trim());
+        // a clause is parsed into intervals on every call, so its parameters are simply written in
+        Domain domain = parts.length == 2 ? Domain.parse(Parameters.bind(parts[1].trim(), values)) : null;
+
+        Expression expression = ExpressionTemplates.of(baseExpr, values, "x");
+        return new Plot(x -> expression.setVariable("x", x).evaluate(), domain);
+    }
+
+    private record Plot(DoubleUnaryOperator f, Domain domain) {}
+
+    // F(x, y) = lhs - rhs of an implicit equation; a fresh expression per call, for one tracing thread
+    private static DoubleBinaryOperator implicit(String lhs, String rhs, Map<String, Double> values) {
+        Expression diff = ExpressionTemplates.of("(" + Functions.fixImplicitMultiplication(lhs.trim()) + ")-("
+                + Functions.fixImplicitMultiplication(rhs.trim()) + ")", values, "x", "y");
+        return (x, y) -> diff.setVariable("x", x).setVariable("y", y).evaluate();
+    }
+
+    /**
+     * The data series of a "data: file" entry, opened (and a CSV converted) on first use and again
+     * when the file changes; {@link UncheckedIOException} if it cannot be read.
+     */
+    private DataSeries series(String entry) {
+        Path path = DataSeries.path(entry).toAbsolutePath();
+        DataKey key;
+        try {
+            key = new DataKey(path, Files.getLastModifiedTime(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CompletableFuture<DataSeries> series, mine = new CompletableFuture<>();
+        synchronized (dataSeries) {
+            series = dataSeries.putIfAbsent(key, mine);
+        }
+        if (series == null) { // ours to open, outside the lock: converting a large CSV takes seconds
+            series = mine;
+            try {
+                mine.complete(DataSeries.open(path));
+            } catch (IOException | RuntimeException e) {
+                synchronized (dataSeries) {
+                    dataSeries.remove(key, mine); // the next use tries again
+                }
+                mine.completeExceptionally(e);
+            }
+        }
+        try {
+            return series.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw new UncheckedIOException(io);
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw e;
+        }
+    }
+
+    /**
+     * y = f(x) for crossing refinement, its parameters set from {@code parameters}: NaN outside the entry's
+     * domain over the viewport; for a data series, linear between its rows.
+     */
+    DoubleUnaryOperator restricted(String expr, Map<String, Double> parameters, Viewport view) {
+        if (DataSeries.isEntry(expr)) return series(expr)::interpolate;
+        Plot plot = compile(expr, Parameters.values(expr, parameters));
+        if (plot.domain() == null) return plot.f();
+        double[] domain = plot.domain().intervals(view.worldX(-2), view.worldX(view.width() + 2),
+                1 / view.scale(), domainTolerance(view));
+        return x -> Domain.contains(domain, x) ? plot.f().applyAsDouble(x) : Double.NaN;
+    }
+
+    // x = a adds a directly; other equations add their cached roots over the viewport
+    private static void handleEquation(String equation, Map<String, Double> values, EquationRoots equationRoots,
+                                       List<Double> verticalLines, Viewport view) {
+        if (equation == null) return;
+        String eq = equation.replaceAll("\\s+", "");
+        int idx = eq.indexOf('=');
+        if (idx <= 0 || idx >= eq.length() - 1) return;
+
+        String left = eq.substring(0, idx), right = eq.substring(idx + 1);
+
+        try {
+            if (left.equals("x")) { addUnique(verticalLines, ExpressionTemplates.of(right, values).evaluate()); return; }
+            if (right.equals("x")) { addUnique(verticalLines, ExpressionTemplates.of(left, values).evaluate()); return; }
+        } catch (Exception ignored) {}
+
+        List<Double> found = new ArrayList<>();
+        try {
+            equationRoots.roots(Parameters.bind(eq, values), () -> {
+                Expression diff = ExpressionTemplates.of("(" + left + ")-(" + right + ")", values, "x");
+                return x -> diff.setVariable("x", x).evaluate();
+            }, SampleTileCache.levelFor(view.scale()), view.worldX(0), view.worldX(view.width()), found);
+        } catch (Exception ignored) {}
+        for (Double x : found) addUnique(verticalLines, x);
+    }
+
+    /** Adds {@code x} unless {@code xs} has a value within 1e-4 of it; returns whether it was added. */
+    static boolean addUnique(List<Double> xs, Double x) {
+        for (int i = 0; i < xs.size(); i++) if (Math.abs(xs.get(i) - x) < 1e-4) return false;
+        return xs.add(x);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the canvas for hover hit-testing, built once per drawn frame. Marker points go in
+ * the cell they are in; curve segments go in every cell their screen box, grown by the hover radius,
+ * touches. A lookup then only tests what is filed under the mouse's cell (or 3x3 cells for markers), and
+ * picks the same hit as a scan in list order would: the first marker, else the first segment.
+ *
+ * Cells are stored CSR-style in int arrays that are reused between frames.
+ */
+final class HitIndex {
+    private final double radius;
+    private final double cell;
+    private int cols, rows;
+
+    private int[] pointStart = new int[0], points = new int[0];
+    private int[] segStart = new int[0], segCurve = new int[0], segK = new int[0];
+    private int[] cursor = new int[0];
+
+    private CurveBuffer markers;
+    private List<CurveBuffer> curves;
+
+    HitIndex(double radius) {
+        this.radius = radius;
+        this.cell = 2 * radius;
+    }
+
+    void build(CurveBuffer markers, List<CurveBuffer> curves, int curveCount, double w, double h) {
+        this.markers = markers;
+        this.curves = curves;
+        cols = Math.max(1, (int) Math.ceil(w / cell));
+        rows = Math.max(1, (int) Math.ceil(h / cell));
+        int cells = cols * rows;
+        if (pointStart.length < cells + 1) {
+            pointStart = new int[cells + 1];
+            segStart = new int[cells + 1];
+            cursor = new int[cells + 1];
+        }
+
+        // markers: count, prefix sums, fill
+        Arrays.fill(pointStart, 0, cells + 1, 0);
+        for (int i = 0; i < markers.size(); i++) {
+            int c = cellOf(markers.sx(i), markers.sy(i));
+            if (c >= 0) pointStart[c + 1]++;
+        }
+        for (int c = 0; c < cells; c++) pointStart[c + 1] += pointStart[c];
+        points = ensure(points, pointStart[cells]);
+        System.arraycopy(pointStart, 0, cursor, 0, cells);
+        for (int i = 0; i < markers.size(); i++) {
+            int c = cellOf(markers.sx(i), markers.sy(i));
+            if (c >= 0) points[cursor[c]++] = i;
+        }
+
+        // segments, in curve then point order so each cell's list stays in scan order
+        Arrays.fill(segStart, 0, cells + 1, 0);
+        for (int ci = 0; ci < curveCount; ci++) {
+            CurveBuffer pts = curves.get(ci);
+            for (int k = 1; k < pts.size(); k++) forCells(pts, k, -1, -1);
+        }
+        for (int c = 0; c < cells; c++) segStart[c + 1] += segStart[c];
+        segCurve = ensure(segCurve, segStart[cells]);
+        segK = ensure(segK, segStart[cells]);
+        System.arraycopy(segStart, 0, cursor, 0, cells);
+        for (int ci = 0; ci < curveCount; ci++) {
+            CurveBuffer pts = curves.get(ci);
+            for (int k = 1; k < pts.size(); k++) forCells(pts, k, ci, k);
+        }
+    }
+
+    // counts (curve < 0) or files segment k of pts into each cell its grown box touches
+    private void forCells(CurveBuffer pts, int k, int curve, int seg) {
+        double x0 = Math.min(pts.sx(k - 1), pts.sx(k)) - radius, x1 = Math.max(pts.sx(k - 1), pts.sx(k)) + radius;
+        double y0 = Math.min(pts.sy(k - 1), pts.sy(k)) - radius, y1 = Math.max(pts.sy(k - 1), pts.sy(k)) + radius;
+        if (!(x1 >= 0 && y1 >= 0 && x0 < cols * cell && y0 < rows * cell)) return; // off canvas (or NaN)
+        int c0 = Math.max(0, (int) (x0 / cell)), c1 = Math.min(cols - 1, (int) (x1 / cell));
+        int r0 = Math.max(0, (int) (y0 / cell)), r1 = Math.min(rows - 1, (int) (y1 / cell));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int idx = r * cols + c;
+                if (curve < 0) {
+                    segStart[idx + 1]++;
+                } else {
+                    segCurve[cursor[idx]] = curve;
+                    segK[cursor[idx]++] = seg;
+                }
+            }
+        }
+    }
+
+    private int cellOf(double x, double y) {
+        if (!(x >= 0 && y >= 0 && x < cols * cell && y < rows * cell)) return -1;
+        return (int) (y / cell) * cols + (int) (x / cell);
+    }
+
+    /** Lowest index of a marker within the hover radius of (mx, my), or -1. */
+    int marker(double mx, double my) {
+        if (markers == null) return -1;
+        int best = -1;
+        int col = (int) Math.floor(mx / cell), row = (int) Math.floor(my / cell);
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
+                int idx = r * cols + c;
+                for (int p = pointStart[idx]; p < pointStart[idx + 1]; p++) {
+                    int i = points[p];
+                    if ((best < 0 || i < best) && Math.hypot(mx - markers.sx(i), my - markers.sy(i)) < radius) best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * First segment (by curve, then point) passing within the hover radius of (mx, my), packed as
+     * {@code curve << 32 | k} for the segment ending at point k, or -1.
+     */
+    long segment(double mx, double my) {
+        int idx = cellOf(mx, my);
+        if (idx < 0 || curves == null) return -1;
+        long best = -1;
+        for (int p = segStart[idx]; p < segStart[idx + 1]; p++) {
+            long id = (long) segCurve[p] << 32 | segK[p];
+            if (best >= 0 && id >= best) continue;
+            if (hits(curves.get(segCurve[p]), segK[p], mx, my)) best = id;
+        }
+        return best;
+    }
+
+    private boolean hits(CurveBuffer pts, int k, double mx, double my) {
+        double sx1 = pts.sx(k - 1), sy1 = pts.sy(k - 1), sx2 = pts.sx(k), sy2 = pts.sy(k);
+        double dx = sx2 - sx1;
+        if (Math.abs(dx) < 1e-6) {
+            return Math.abs(mx - sx1) < radius && my >= Math.min(sy1, sy2) - radius && my <= Math.max(sy1, sy2) + radius;
+        }
+        if (mx < Math.min(sx1, sx2) || mx > Math.max(sx1, sx2)) return false;
+        return Math.abs(my - (sy1 + (mx - sx1) / dx * (sy2 - sy1))) < radius;
+    }
+
+    private static int[] ensure(int[] a, int n) {
+        return a.length >= n ? a : new int[Math.max(n, a.length * 2)];
+    }
+}
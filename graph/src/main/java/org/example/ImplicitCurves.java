@@ -0,0 +1,243 @@
+package org.example;
+
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Curves F(x, y) = 0 traced by marching squares on an adaptive quadtree. The plane is cut into square
+ * tiles of {@link SampleTileCache#TILE} lattice steps of the zoom level, cached per (equation, level,
+ * tile) and traced in parallel. Each tile starts as a grid of {@link #ROOT} x {@link #ROOT} step cells;
+ * a cell is split into four only where its corner signs differ or its centre disagrees with them, down
+ * to one lattice step (at most a pixel), so empty space costs one evaluation per root cell.
+ *
+ * Each tile's segments are joined into polylines where they share end points; the output is those
+ * polylines in world coordinates, separated by NaN points.
+ */
+class ImplicitCurves {
+    /** Root cell size in lattice steps; cells are split down to one step. */
+    private static final int ROOT = 8;
+    private static final int CAPACITY = 2048;
+
+    private static final Counter HITS = Metrics.counter("graph.implicit.hit");
+    private static final Counter TRACED = Metrics.counter("graph.implicit.traced");
+
+    record Key(String equation, int level, long tx, long ty) {}
+
+    private record Point(double x, double y) {}
+
+    private final LinkedHashMap<Key, double[]> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /**
+     * The curve of {@code equation} over the viewport, or null if {@code cancelled} turned true on the way.
+     * {@code f} builds F(x, y); it is called once per tile traced, so each worker has its own.
+     */
+    double[] trace(String equation, Supplier<DoubleBinaryOperator> f, Viewport view, BooleanSupplier cancelled) {
+        int level = SampleTileCache.levelFor(view.scale());
+        double width = SampleTileCache.TILE * SampleTileCache.spacing(level);
+        long tx0 = (long) Math.floor(view.worldX(-2) / width), tx1 = (long) Math.floor(view.worldX(view.width() + 2) / width);
+        long ty0 = (long) Math.floor(view.worldY(view.height() + 2) / width), ty1 = (long) Math.floor(view.worldY(-2) / width);
+        int cols = (int) (tx1 - tx0 + 1), count = cols * (int) (ty1 - ty0 + 1);
+
+        double[][] parts = new double[count][];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            if (cancelled.getAsBoolean()) return;
+            Key key = new Key(equation, level, tx0 + i % cols, ty0 + i / cols);
+            synchronized (tiles) {
+                parts[i] = tiles.get(key);
+            }
+            if (parts[i] != null) {
+                HITS.inc();
+                return;
+            }
+            parts[i] = new Tracer(f.get(), SampleTileCache.spacing(level)).tile(key.tx() * width, key.ty() * width);
+            TRACED.inc();
+            synchronized (tiles) {
+                tiles.put(key, parts[i]);
+            }
+        });
+        if (cancelled.getAsBoolean()) return null;
+
+        int n = 0;
+        for (double[] p : parts) n += p.length + 2;
+        double[] out = new double[n];
+        n = 0;
+        for (double[] p : parts) {
+            if (p.length == 0) continue;
+            if (n > 0) {
+                out[n++] = Double.NaN;
+                out[n++] = Double.NaN;
+            }
+            System.arraycopy(p, 0, out, n, p.length);
+            n += p.length;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** One tile's quadtree walk; not thread-safe, one per tile. */
+    private static final class Tracer {
+        private final DoubleBinaryOperator f;
+        private final double step;
+        private double[] segs = new double[64]; // x1, y1, x2, y2 per segment
+        private int n;
+
+        Tracer(DoubleBinaryOperator f, double step) {
+            this.f = f;
+            this.step = step;
+        }
+
+        double[] tile(double x0, double y0) {
+            int cells = SampleTileCache.TILE / ROOT;
+            double size = ROOT * step;
+            // corner values on the root grid, shared between neighbouring cells
+            double[] grid = new double[(cells + 1) * (cells + 1)];
+            for (int j = 0; j <= cells; j++) {
+                for (int i = 0; i <= cells; i++) grid[j * (cells + 1) + i] = eval(x0 + i * size, y0 + j * size);
+            }
+            for (int j = 0; j < cells; j++) {
+                for (int i = 0; i < cells; i++) {
+                    int c = j * (cells + 1) + i;
+                    cell(x0 + i * size, y0 + j * size, size, grid[c], grid[c + 1], grid[c + cells + 2], grid[c + cells + 1]);
+                }
+            }
+            return chain();
+        }
+
+        // corners counter-clockwise from (x, y): a = (x, y), b = (x + s, y), c = (x + s, y + s), d = (x, y + s)
+        private void cell(double x, double y, double s, double a, double b, double c, double d) {
+            double m = eval(x + s / 2, y + s / 2);
+            boolean split = differ(a, b, c, d) || differ(a, m, a, m);
+            if (!split) return;
+            if (s > step) {
+                double h = s / 2;
+                double ab = eval(x + h, y), bc = eval(x + s, y + h), cd = eval(x + h, y + s), da = eval(x, y + h);
+                cell(x, y, h, a, ab, m, da);
+                cell(x + h, y, h, ab, b, bc, m);
+                cell(x + h, y + h, h, m, bc, c, cd);
+                cell(x, y + h, h, da, m, cd, d);
+                return;
+            }
+            march(x, y, s, a, b, c, d, m);
+        }
+
+        // sign pattern differs among the values, or some but not all are NaN
+        private static boolean differ(double a, double b, double c, double d) {
+            boolean na = Double.isNaN(a), nb = Double.isNaN(b), nc = Double.isNaN(c), nd = Double.isNaN(d);
+            if (na || nb || nc || nd) return !(na && nb && nc && nd);
+            boolean pa = a > 0;
+            return pa != (b > 0) || pa != (c > 0) || pa != (d > 0);
+        }
+
+        private void march(double x, double y, double s, double a, double b, double c, double d, double m) {
+            if (Double.isNaN(a) || Double.isNaN(b) || Double.isNaN(c) || Double.isNaN(d)) return;
+            int mask = (a > 0 ? 1 : 0) | (b > 0 ? 2 : 0) | (c > 0 ? 4 : 0) | (d > 0 ? 8 : 0);
+            if (mask == 0 || mask == 15) return;
+            // crossings on edges ab, bc, cd, da
+            double abx = x + s * a / (a - b), bcy = y + s * b / (b - c), cdx = x + s * d / (d - c), day = y + s * a / (a - d);
+            // a sign change across a pole, as in y = 1/x, has |F| growing toward the crossing instead of vanishing
+            double max = Math.max(Math.max(Math.abs(a), Math.abs(b)), Math.max(Math.abs(c), Math.abs(d)));
+            double atCrossing = ((mask ^ mask >> 1) & 1) != 0 ? eval(abx, y) : ((mask >> 1 ^ mask >> 2) & 1) != 0 ? eval(x + s, bcy) : eval(cdx, y + s);
+            if (!(Math.abs(m) <= max && Math.abs(atCrossing) <= max)) return;
+            switch (mask) {
+                case 1, 14 -> segment(abx, y, x, day);
+                case 2, 13 -> segment(abx, y, x + s, bcy);
+                case 3, 12 -> segment(x, day, x + s, bcy);
+                case 4, 11 -> segment(x + s, bcy, cdx, y + s);
+                case 6, 9 -> segment(abx, y, cdx, y + s);
+                case 7, 8 -> segment(x, day, cdx, y + s);
+                // saddles: the centre decides which corners are joined
+                case 5 -> {
+                    if (m > 0) { segment(abx, y, x + s, bcy); segment(x, day, cdx, y + s); }
+                    else { segment(abx, y, x, day); segment(x + s, bcy, cdx, y + s); }
+                }
+                case 10 -> {
+                    if (m > 0) { segment(abx, y, x, day); segment(x + s, bcy, cdx, y + s); }
+                    else { segment(abx, y, x + s, bcy); segment(x, day, cdx, y + s); }
+                }
+                default -> {}
+            }
+        }
+
+        private void segment(double x1, double y1, double x2, double y2) {
+            if (4 * n + 4 > segs.length) segs = Arrays.copyOf(segs, segs.length * 2);
+            segs[4 * n] = x1;
+            segs[4 * n + 1] = y1;
+            segs[4 * n + 2] = x2;
+            segs[4 * n + 3] = y2;
+            n++;
+        }
+
+        /**
+         * Joins the segments into polylines through their shared end points (cells of the same size
+         * compute a shared edge's crossing identically), with NaN points between the polylines.
+         */
+        private double[] chain() {
+            Map<Point, int[]> ends = new HashMap<>(); // point -> up to two segment ends, 2 * segment + end
+            for (int e = 0; e < 2 * n; e++) {
+                int[] at = ends.computeIfAbsent(new Point(segs[2 * e], segs[2 * e + 1]), k -> new int[]{-1, -1});
+                at[at[0] < 0 ? 0 : 1] = e;
+            }
+            boolean[] used = new boolean[n];
+            double[] out = new double[6 * n];
+            int size = 0;
+            int[] piece = new int[n + 1];
+            for (int first = 0; first < n; first++) {
+                if (used[first]) continue;
+                used[first] = true;
+                // walk forward from the first segment's end, then backward from its start
+                int tail = walk(2 * first + 1, used, ends, piece, 0);
+                int head = walk(2 * first, used, ends, piece, tail);
+                if (size > 0) {
+                    out[size++] = Double.NaN;
+                    out[size++] = Double.NaN;
+                }
+                // backward ends, reversed, then the first segment's start and end, then forward ends
+                for (int k = head - 1; k >= tail; k--) size = put(out, size, piece[k]);
+                size = put(out, size, 2 * first);
+                size = put(out, size, 2 * first + 1);
+                for (int k = 0; k < tail; k++) size = put(out, size, piece[k]);
+            }
+            return Arrays.copyOf(out, size);
+        }
+
+        // follows the chain from segment end e, storing each further end reached in piece from index k on
+        private int walk(int e, boolean[] used, Map<Point, int[]> ends, int[] piece, int k) {
+            while (true) {
+                int[] at = ends.get(new Point(segs[2 * e], segs[2 * e + 1]));
+                int next = at[0] == e ? at[1] : at[0];
+                if (next < 0 || used[next / 2]) return k;
+                used[next / 2] = true;
+                e = next ^ 1; // the far end of that segment
+                piece[k++] = e;
+            }
+        }
+
+        private int put(double[] out, int size, int e) {
+            out[size] = segs[2 * e];
+            out[size + 1] = segs[2 * e + 1];
+            return size + 2;
+        }
+
+        private double eval(double x, double y) {
+            try {
+                double v = f.applyAsDouble(x, y);
+                return Double.isFinite(v) ? v : Double.NaN;
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.example;
+
+import org.example.math.Algorthims;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Crossings between every pair of sampled curves, found on a sampler thread once a frame's samples are
+ * exact. Each pair is culled by its bounding boxes, first whole and then per block of {@link #BLOCK}
+ * segments while both polylines are swept in x order; each sign change of the sampled difference is then
+ * refined by bisection on f - g with the real functions. Results are cached per pair and viewport, so
+ * editing one entry only recomputes the pairs it is in.
+ */
+class IntersectionFinder {
+    private static final int BLOCK = 32;
+    private static final int CAPACITY = 1024;
+    private static final int MAX_ITER = 100;
+
+    private static final Counter PAIRS = Metrics.counter("graph.crossings.pairs");
+    private static final Counter CULLED = Metrics.counter("graph.crossings.culled");
+    private static final Counter CACHED = Metrics.counter("graph.crossings.cached");
+
+    private record PairKey(String a, String b, Viewport view) {}
+
+    /** y = f(x) of an entry with its parameters set from {@code parameters}, as plotted in {@code view}. */
+    interface Compiler {
+        DoubleUnaryOperator compile(String entry, Map<String, Double> parameters, Viewport view);
+    }
+
+    private final Compiler compiler;
+    private final LinkedHashMap<PairKey, double[]> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PairKey, double[]> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /** {@code compiler} is called on sampler threads. */
+    IntersectionFinder(Compiler compiler) {
+        this.compiler = compiler;
+    }
+
+    /** World (x, y) pairs of all crossings, flattened; null if {@code cancelled} turned true on the way. */
+    double[] find(Viewport view, List<String> entries, Map<String, Double> parameters, List<CurveSnapshot.Entry> samples,
+                  BooleanSupplier cancelled) {
+        int n = entries.size();
+        Curve[] curves = new Curve[n];
+        for (int i = 0; i < n; i++) {
+            // implicit and parametric curves are not x-sorted and have no y = f(x) to refine against
+            if (samples.get(i).sorted() && samples.get(i).xs().length > 1) curves[i] = new Curve(entries.get(i), parameters, samples.get(i));
+        }
+        double[] out = new double[16];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (curves[i] == null || curves[j] == null) continue;
+                if (cancelled.getAsBoolean()) return null;
+                double[] found = pair(curves[i], curves[j], view);
+                if (size + found.length > out.length) out = Arrays.copyOf(out, Math.max(out.length * 2, size + found.length));
+                System.arraycopy(found, 0, out, size, found.length);
+                size += found.length;
+            }
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    private double[] pair(Curve a, Curve b, Viewport view) {
+        PAIRS.inc();
+        PairKey key = new PairKey(a.key, b.key, view);
+        synchronized (cache) {
+            double[] cached = cache.get(key);
+            if (cached != null) {
+                CACHED.inc();
+                return cached;
+            }
+        }
+        double[] found;
+        if (!a.overlaps(b)) {
+            CULLED.inc();
+            found = new double[0];
+        } else {
+            found = sweep(a, b, view);
+        }
+        synchronized (cache) {
+            cache.put(key, found);
+        }
+        return found;
+    }
+
+    // walks both polylines over the x intervals where their segments overlap, skipping block pairs whose boxes don't
+    private double[] sweep(Curve a, Curve b, Viewport view) {
+        double[] out = new double[0];
+        int i = 1, j = 1;
+        int blockA = -1, blockB = -1;
+        boolean overlap = false;
+        while (i < a.size() && j < b.size()) {
+            int ka = (i - 1) / BLOCK, kb = (j - 1) / BLOCK;
+            if (ka != blockA || kb != blockB) {
+                blockA = ka;
+                blockB = kb;
+                overlap = a.overlaps(ka, b, kb);
+            }
+            if (!overlap) {
+                // nothing can cross before the first of the two blocks ends
+                if (a.xs[a.blockEnd(ka)] < b.xs[b.blockEnd(kb)]) i = a.blockEnd(ka) + 1;
+                else j = b.blockEnd(kb) + 1;
+                continue;
+            }
+            double lo = Math.max(a.xs[i - 1], b.xs[j - 1]), hi = Math.min(a.xs[i], b.xs[j]);
+            if (lo < hi) {
+                double dLo = a.lerp(i, lo) - b.lerp(j, lo);
+                double dHi = a.lerp(i, hi) - b.lerp(j, hi);
+                // a crossing exactly at a sample point is counted where it starts a segment pair
+                double[] p = null;
+                if (dLo == 0 && dHi != 0) {
+                    p = new double[]{lo, a.lerp(i, lo)};
+                } else if (dLo * dHi < 0) {
+                    double x = lo + (hi - lo) * dLo / (dLo - dHi);
+                    p = refine(a, b, lo, hi, x, a.lerp(i, x), view);
+                }
+                if (p != null) {
+                    out = Arrays.copyOf(out, out.length + 2);
+                    out[out.length - 2] = p[0];
+                    out[out.length - 1] = p[1];
+                }
+            }
+            if (a.xs[i] < b.xs[j]) i++;
+            else j++;
+        }
+        return out;
+    }
+
+    /**
+     * The root of f - g in [lo, hi] by bisection, with y = f(root). Keeps the linear estimate when the
+     * real difference has the same sign at both ends (two close crossings or a touch) and drops the
+     * crossing when the difference is not small at the root (a pole, as in tan(x), rather than a crossing).
+     */
+    private double[] refine(Curve a, Curve b, double lo, double hi, double estX, double estY, Viewport view) {
+        DoubleUnaryOperator f = a.function(compiler, view), g = b.function(compiler, view);
+        DoubleUnaryOperator h = x -> f.applyAsDouble(x) - g.applyAsDouble(x);
+        double hLo = h.applyAsDouble(lo), hHi = h.applyAsDouble(hi);
+        if (Double.isNaN(hLo) || Double.isNaN(hHi) || hLo * hHi > 0) return new double[]{estX, estY};
+        try {
+            double x = Algorthims.bisection(h, lo, hi, 1e-9 / view.scale(), MAX_ITER);
+            double y = f.applyAsDouble(x);
+            if (!Double.isFinite(y) || Math.abs(h.applyAsDouble(x)) * view.scale() > 1) return null;
+            return new double[]{x, y};
+        } catch (RuntimeException e) {
+            return new double[]{estX, estY};
+        }
+    }
+
+    /** One sampled curve with its y range per block of segments; compiled lazily when a crossing needs refining. */
+    private static final class Curve {
+        final String expr, key; // key: with the parameter values written in
+        final Map<String, Double> parameters;
+        final double[] xs, ys;
+        final double[] blockMin, blockMax; // block k: points k*BLOCK .. blockEnd(k)
+        final double min, max;
+        private DoubleUnaryOperator f;
+
+        Curve(String expr, Map<String, Double> parameters, CurveSnapshot.Entry entry) {
+            this.expr = expr;
+            this.key = Parameters.bind(expr, parameters);
+            this.parameters = parameters;
+            this.xs = entry.xs();
+            this.ys = entry.ys();
+            int blocks = (xs.length - 2) / BLOCK + 1;
+            blockMin = new double[blocks];
+            blockMax = new double[blocks];
+            double lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < blocks; k++) {
+                double bMin = Double.POSITIVE_INFINITY, bMax = Double.NEGATIVE_INFINITY;
+                for (int p = k * BLOCK; p <= blockEnd(k); p++) {
+                    // comparisons skip NaN gaps (a data series' missing rows); Math.min would spread them
+                    if (ys[p] < bMin) bMin = ys[p];
+                    if (ys[p] > bMax) bMax = ys[p];
+                }
+                blockMin[k] = bMin;
+                blockMax[k] = bMax;
+                lo = Math.min(lo, bMin);
+                hi = Math.max(hi, bMax);
+            }
+            min = lo;
+            max = hi;
+        }
+
+        int size() {
+            return xs.length;
+        }
+
+        int blockEnd(int k) {
+            return Math.min(xs.length - 1, k * BLOCK + BLOCK);
+        }
+
+        /** Whether the bounding boxes of the two whole curves intersect. */
+        boolean overlaps(Curve b) {
+            return xs[0] <= b.xs[b.size() - 1] && b.xs[0] <= xs[size() - 1] && min <= b.max && b.min <= max;
+        }
+
+        /** Whether the bounding boxes of block {@code k} here and block {@code kb} of {@code b} intersect. */
+        boolean overlaps(int k, Curve b, int kb) {
+            return xs[k * BLOCK] <= b.xs[b.blockEnd(kb)] && b.xs[kb * BLOCK] <= xs[blockEnd(k)]
+                    && blockMin[k] <= b.blockMax[kb] && b.blockMin[kb] <= blockMax[k];
+        }
+
+        double lerp(int k, double x) {
+            double x0 = xs[k - 1], x1 = xs[k], y0 = ys[k - 1];
+            return x1 == x0 ? y0 : y0 + (ys[k] - y0) * (x - x0) / (x1 - x0);
+        }
+
+        DoubleUnaryOperator function(Compiler compiler, Viewport view) {
+            if (f == null) f = compiler.compile(expr, parameters, view);
+            return f;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example;
+
+import net.objecthunter.exp4j.ExpressionBuilder;
+import org.example.math.Functions;
+import org.example.math.Session;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Named parameters and function families in plotted entries. A parameter is any name in an entry that
+ * is not a variable, constant, keyword or function call, e.g. a and b in {@code a*sin(b*x)}; the window
+ * shows a slider for each. Entries are sampled with their parameters as exp4j variables set to the
+ * current {@link #values}, so a moved slider parses nothing again; their samples are cached under the
+ * entry with those values written in ({@link #bind}), so every other curve keeps its samples.
+ *
+ * A family, {@code sin(x + k) for k in 0..100} or {@code k*x^2 for k in -1..1 step 0.25}, plots its
+ * body once per value of the family variable, as one entry (see {@link GraphSampling}).
+ */
+final class Parameters {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern FAMILY = Pattern.compile(
+            "^(.+?)\\s+for\\s+([A-Za-z_][A-Za-z0-9_]*)\\s+in\\s+(.+?)\\s*\\.\\.\\s*(.+?)(?:\\s+step\\s+(.+?))?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+    // the session's reserved names, and keywords of 'where' bounds, families and data entries
+    private static final Set<String> RESERVED = Stream.concat(Session.RESERVED.stream(),
+            Stream.of("inf", "infinity", "for", "step", "data")).collect(Collectors.toUnmodifiableSet());
+    static final int MAX_MEMBERS = 1000;
+
+    /** A family: {@code body} for {@code variable} = each of {@code values}. */
+    record Family(String body, String variable, double[] values) {
+        /** The body with the family variable replaced by its {@code i}-th value. */
+        String member(int i) {
+            return replace(body, variable, values[i]);
+        }
+    }
+
+    private Parameters() {}
+
+    /** Whether {@code entry} is a family, "body for k in a..b". */
+    static boolean isFamily(String entry) {
+        return !DataSeries.isEntry(entry) && FAMILY.matcher(entry).matches();
+    }
+
+    /**
+     * The family of {@code entry}, bounds evaluated; {@link IllegalArgumentException} if the bounds do not
+     * evaluate or give more than {@link #MAX_MEMBERS} members.
+     */
+    static Family family(String entry) {
+        Matcher m = FAMILY.matcher(entry);
+        if (!m.matches()) throw new IllegalArgumentException("not a family: " + entry);
+        double from = constant(m.group(3)), to = constant(m.group(4)), step = m.group(5) == null ? 1 : constant(m.group(5));
+        if (!(step > 0) || !(to >= from)) throw new IllegalArgumentException("family needs from <= to and step > 0");
+        double count = Math.floor((to - from) / step + 1e-9) + 1;
+        if (count > MAX_MEMBERS) throw new IllegalArgumentException("a family has at most " + MAX_MEMBERS + " members");
+        double[] values = new double[(int) count];
+        for (int i = 0; i < values.length; i++) values[i] = from + i * step;
+        return new Family(m.group(1).trim(), m.group(2), values);
+    }
+
+    /** The parameters of {@code entry}, in order of appearance. */
+    static Set<String> names(String entry) {
+        Set<String> names = new LinkedHashSet<>();
+        if (DataSeries.isEntry(entry)) return names;
+        String variable = familyVariable(entry);
+        Matcher m = IDENTIFIER.matcher(entry);
+        while (m.find()) {
+            if (isParameter(entry, m, variable)) names.add(m.group());
+        }
+        return names;
+    }
+
+    /** The parameters of {@code entry} that have a value in {@code values}, with those values. */
+    static Map<String, Double> values(String entry, Map<String, Double> values) {
+        if (values.isEmpty()) return Map.of();
+        Map<String, Double> bound = new LinkedHashMap<>();
+        for (String name : names(entry)) {
+            Double v = values.get(name);
+            if (v != null) bound.put(name, v);
+        }
+        return bound;
+    }
+
+    /** {@code entry} with each parameter that has a value in {@code values} replaced by it. */
+    static String bind(String entry, Map<String, Double> values) {
+        if (values.isEmpty() || DataSeries.isEntry(entry)) return entry;
+        String variable = familyVariable(entry);
+        StringBuilder sb = new StringBuilder();
+        Matcher m = IDENTIFIER.matcher(entry);
+        int last = 0;
+        while (m.find()) {
+            Double v = values.get(m.group());
+            if (v == null || !isParameter(entry, m, variable)) continue;
+            sb.append(entry, last, m.start()).append(literal(v));
+            last = m.end();
+        }
+        return last == 0 ? entry : sb.append(entry.substring(last)).toString();
+    }
+
+    private static boolean isParameter(String entry, Matcher m, String familyVariable) {
+        String name = m.group();
+        if (RESERVED.contains(name.toLowerCase(Locale.ROOT)) || name.equals(familyVariable)) return false;
+        if (m.start() > 0 && Character.isDigit(entry.charAt(m.start() - 1)) && name.matches("[eE]\\d*")) return false; // 1e5
+        int i = m.end();
+        while (i < entry.length() && entry.charAt(i) == ' ') i++;
+        return i >= entry.length() || entry.charAt(i) != '('; // a function call
+    }
+
+    private static String familyVariable(String entry) {
+        Matcher m = FAMILY.matcher(entry);
+        return m.matches() ? m.group(2) : null;
+    }
+
+    // name replaced by the parenthesised value wherever it stands alone
+    private static String replace(String expr, String name, double value) {
+        return Pattern.compile("(?<![A-Za-z0-9_])" + Pattern.quote(name) + "(?![A-Za-z0-9_])").matcher(expr)
+                .replaceAll(Matcher.quoteReplacement(literal(value)));
+    }
+
+    private static String literal(double v) {
+        return "(" + BigDecimal.valueOf(v).stripTrailingZeros().toPlainString() + ")";
+    }
+
+    private static double constant(String s) {
+        try {
+            return new ExpressionBuilder(Functions.fixImplicitMultiplication(s.trim())).variables("pi", "e").build()
+                    .setVariable("pi", Math.PI).setVariable("e", Math.E).evaluate();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("bad family bound " + s);
+        }
+    }
+}
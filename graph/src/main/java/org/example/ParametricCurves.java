@@ -0,0 +1,255 @@
+package org.example;
+
+import net.objecthunter.exp4j.Expression;
+import org.example.math.Functions;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Parametric curves "(x(t), y(t))" and polar curves "r = f(theta)" (or f(θ)), with the parameter in
+ * [0, 2pi] unless a 'where' clause on it says otherwise ({@code where t in [0, 10pi]}; clauses are
+ * clamped to +-{@link #LIMIT}). Unlike y = f(x) they are not cut into x tiles, since their extent does
+ * not follow the x axis: each curve is sampled whole, once per (entry, zoom level, block of the plane
+ * around the view), the blocks {@link #BLOCK} lattice steps square.
+ *
+ * Sampling follows the curve's length and bend on screen rather than the parameter: a uniform coarse
+ * pass, evaluated as one batch, then bisection of every step near the view (within a block of the
+ * view's) whose chord is longer than {@link #MAX_CHORD} lattice steps or whose midpoint is off the chord
+ * by more than half a step. A step that still wants splitting at {@link #MAX_DEPTH} is a jump (a pole of
+ * r, say) and breaks the curve.
+ * The output is world x, y pairs with NaN points between pieces. All methods may be called from any thread.
+ */
+class ParametricCurves {
+    /** Largest |parameter| a 'where' clause can admit. */
+    static final double LIMIT = 1000;
+    /** Coarse steps per admitted parameter interval. */
+    private static final int COARSE = 128;
+    /** Longest chord left unsplit, in lattice steps. */
+    private static final int MAX_CHORD = 16;
+    /** Chords longer than this many lattice steps get a second, off-centre probe. */
+    private static final int PROBED = 4;
+    private static final double PROBE_AT = 0.382;
+    private static final int MAX_DEPTH = 20;
+    /** Cache block size in lattice steps; the view's centre block and its neighbours are refined. */
+    private static final int BLOCK = 4096;
+    private static final int CAPACITY = 256;
+
+    private static final Pattern T = Pattern.compile("(?<![A-Za-z_])t(?![A-Za-z_])");
+    private static final Pattern THETA = Pattern.compile("(?<![A-Za-z_])theta(?![A-Za-z_])");
+    private static final Pattern POLAR = Pattern.compile("^\\s*r\\s*=(?!=)");
+
+    private static final Counter HITS = Metrics.counter("graph.parametric.hit");
+    private static final Counter SAMPLED = Metrics.counter("graph.parametric.sampled");
+    private static final Counter EVALS = Metrics.counter("graph.samples.evaluated");
+
+    /** x(t) and y(t) for {@code n} parameter values at once; not thread-safe. */
+    interface Coordinates {
+        void eval(double[] t, int n, double[] x, double[] y);
+    }
+
+    record Key(String entry, int level, long bx, long by) {}
+
+    private final LinkedHashMap<Key, double[]> curves = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /** Whether the part of an entry before 'where' is a parametric or polar curve. */
+    static boolean isCurve(String expr) {
+        return POLAR.matcher(expr).find() || split(expr.trim()) != null;
+    }
+
+    /**
+     * The curve of {@code entry} (with its 'where' clause, if any) for {@code view}, its parameters set to
+     * {@code values}, sampled with about {@code budget} evaluations of each coordinate.
+     */
+    double[] sample(String entry, Map<String, Double> values, Viewport view, int budget) {
+        int level = SampleTileCache.levelFor(view.scale());
+        double block = BLOCK * SampleTileCache.spacing(level);
+        long bx = (long) Math.floor(view.worldX(view.width() / 2) / block);
+        long by = (long) Math.floor(view.worldY(view.height() / 2) / block);
+        Key key = new Key(Parameters.bind(entry, values), level, bx, by);
+        double[] xy;
+        synchronized (curves) {
+            xy = curves.get(key);
+        }
+        if (xy != null) {
+            HITS.inc();
+            return xy;
+        }
+        String[] parts = entry.replace("\u03b8", "theta").split("(?i)\\bwhere\\b", 2);
+        boolean polar = POLAR.matcher(parts[0]).find();
+        Coordinates f = polar ? polar(parts[0].substring(parts[0].indexOf('=') + 1), values)
+                : parametric(split(parts[0].trim()), values);
+        double[] range = {0, 2 * Math.PI};
+        if (parts.length == 2) {
+            String clause = (polar ? THETA : T).matcher(Parameters.bind(parts[1].trim(), values)).replaceAll("x");
+            range = Domain.parse(clause).intervals(-LIMIT, LIMIT, 1.0 / 64, 1e-9);
+        }
+        Sampler s = new Sampler(f, SampleTileCache.spacing(level), (bx - 1) * block, (by - 1) * block, (bx + 2) * block, (by + 2) * block);
+        xy = s.sample(range, budget);
+        SAMPLED.inc();
+        EVALS.add(s.evals);
+        synchronized (curves) {
+            curves.put(key, xy);
+        }
+        return xy;
+    }
+
+    // "(a, b)" as {a, b}, split at the top-level comma; null if expr is not of that form
+    private static String[] split(String expr) {
+        if (!expr.startsWith("(") || !expr.endsWith(")")) return null;
+        int depth = 0, comma = -1;
+        for (int i = 0; i < expr.length(); i++) {
+            char c = expr.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')' && --depth == 0 && i < expr.length() - 1) return null; // "(a)(b)"
+            else if (c == ',' && depth == 1) {
+                if (comma >= 0) return null;
+                comma = i;
+            }
+        }
+        return comma < 0 ? null : new String[]{expr.substring(1, comma), expr.substring(comma + 1, expr.length() - 1)};
+    }
+
+    private static Coordinates parametric(String[] xy, Map<String, Double> values) {
+        Expression fx = build(xy[0], "t", values), fy = build(xy[1], "t", values);
+        return (t, n, x, y) -> {
+            for (int i = 0; i < n; i++) x[i] = eval(fx, "t", t[i]);
+            for (int i = 0; i < n; i++) y[i] = eval(fy, "t", t[i]);
+        };
+    }
+
+    private static Coordinates polar(String r, Map<String, Double> values) {
+        Expression fr = build(r, "theta", values);
+        return (t, n, x, y) -> {
+            for (int i = 0; i < n; i++) {
+                double radius = eval(fr, "theta", t[i]);
+                x[i] = radius * Math.cos(t[i]);
+                y[i] = radius * Math.sin(t[i]);
+            }
+        };
+    }
+
+    private static Expression build(String s, String parameter, Map<String, Double> values) {
+        return ExpressionTemplates.of(Functions.fixImplicitMultiplication(s.trim()), values, parameter);
+    }
+
+    private static double eval(Expression e, String parameter, double t) {
+        try {
+            double v = e.setVariable(parameter, t).evaluate();
+            return Double.isFinite(v) ? v : Double.NaN;
+        } catch (RuntimeException ex) {
+            return Double.NaN;
+        }
+    }
+
+    /** One curve's sampling; not thread-safe. */
+    private static final class Sampler {
+        private final Coordinates f;
+        private final double tolerance, maxChord, probeChord;
+        private final double xMin, yMin, xMax, yMax; // where steps are refined
+        private final double[] t1 = new double[1], x1 = new double[1], y1 = new double[1];
+        private double[] out = new double[256]; // x, y pairs
+        private int n, evals;
+
+        Sampler(Coordinates f, double step, double xMin, double yMin, double xMax, double yMax) {
+            this.f = f;
+            this.xMin = xMin;
+            this.yMin = yMin;
+            this.xMax = xMax;
+            this.yMax = yMax;
+            this.tolerance = step / 2; // half a pixel, since the lattice step is at most one
+            this.maxChord = MAX_CHORD * step;
+            this.probeChord = PROBED * step;
+        }
+
+        // samples each [a, b] pair of range; each coarse step may refine with its share of the budget plus
+        // whatever the steps before it left unused
+        double[] sample(double[] range, int budget) {
+            int steps = COARSE * range.length / 2;
+            int share = Math.max(0, budget - steps - range.length / 2) / Math.max(1, steps);
+            int left = 0;
+            double[] t = new double[COARSE + 1], x = new double[COARSE + 1], y = new double[COARSE + 1];
+            for (int p = 0; p < range.length; p += 2) {
+                double a = range[p], b = range[p + 1];
+                for (int i = 0; i <= COARSE; i++) t[i] = a + (b - a) * i / COARSE;
+                f.eval(t, COARSE + 1, x, y);
+                evals += COARSE + 1;
+                if (p > 0) add(Double.NaN, Double.NaN);
+                for (int i = 0; i < COARSE; i++) {
+                    add(x[i], y[i]);
+                    left = refine(t[i], x[i], y[i], t[i + 1], x[i + 1], y[i + 1], 0, share + left);
+                }
+                add(x[COARSE], y[COARSE]);
+            }
+            return Arrays.copyOf(out, 2 * n);
+        }
+
+        /**
+         * Appends the samples strictly inside (ta, tb) and returns the budget left. The first half takes
+         * what it needs before the second, so a pole can be chased down to {@link #MAX_DEPTH} while the
+         * smooth side next to it costs a few evaluations per level.
+         */
+        private int refine(double ta, double xa, double ya, double tb, double xb, double yb, int depth, int budget) {
+            if (budget < 1 || !near(xa, ya, xb, yb)) return budget;
+            double tm = (ta + tb) / 2;
+            at(tm);
+            budget--;
+            double xm = x1[0], ym = y1[0];
+            boolean split = needsSplit(xa, ya, xm, ym, xb, yb, 0.5);
+            if (!split && Math.hypot(xb - xa, yb - ya) > probeChord) {
+                // a loop can pass back through the chord's midpoint, rarely through both probes
+                at(ta + (tb - ta) * PROBE_AT);
+                budget--;
+                split = needsSplit(xa, ya, x1[0], y1[0], xb, yb, PROBE_AT);
+                if (!split) add(x1[0], y1[0]);
+            }
+            if (!split) {
+                add(xm, ym);
+                return budget;
+            }
+            if (depth == MAX_DEPTH) {
+                // still too long or bent this close together: a jump, so the curve is broken here
+                add(Double.NaN, Double.NaN);
+                return budget;
+            }
+            budget = refine(ta, xa, ya, tm, xm, ym, depth + 1, budget);
+            add(xm, ym);
+            return refine(tm, xm, ym, tb, xb, yb, depth + 1, budget);
+        }
+
+        // whether the chord's bounding box meets the refined region; NaN ends count as near
+        private boolean near(double xa, double ya, double xb, double yb) {
+            return !(Math.max(xa, xb) < xMin || Math.min(xa, xb) > xMax || Math.max(ya, yb) < yMin || Math.min(ya, yb) > yMax);
+        }
+
+        // (xm, ym) is the point at fraction s of the step from (xa, ya) to (xb, yb)
+        private boolean needsSplit(double xa, double ya, double xm, double ym, double xb, double yb, double s) {
+            boolean na = Double.isNaN(xa + ya), nm = Double.isNaN(xm + ym), nb = Double.isNaN(xb + yb);
+            if (na || nm || nb) return !(na && nm && nb);
+            return Math.hypot(xb - xa, yb - ya) > maxChord
+                    || Math.hypot(xm - (xa + (xb - xa) * s), ym - (ya + (yb - ya) * s)) > tolerance;
+        }
+
+        private void at(double t) {
+            t1[0] = t;
+            f.eval(t1, 1, x1, y1);
+            evals++;
+        }
+
+        private void add(double x, double y) {
+            if (2 * n + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+            out[2 * n] = x;
+            out[2 * n + 1] = y;
+            n++;
+        }
+    }
+}
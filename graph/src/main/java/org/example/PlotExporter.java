@@ -0,0 +1,210 @@
+package org.example;
+
+import org.example.math.Session;
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+import org.example.metrics.Timer;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Renders plots to PNG or SVG files without the graph window or the JavaFX toolkit: entries are sampled
+ * by the window's {@link GraphSampling} and painted by its {@link PlotPainter}, onto a Java2D image or a
+ * streamed SVG document. A batch file holds one plot per line, rendered in parallel on all cores:
+ *
+ * <pre>
+ * # output [WIDTHxHEIGHT] [scale=S] [center=X,Y] [theme=NAME] : entry; entry; ...
+ * sine.png 800x600 scale=80 : sin(x); cos(x)
+ * circle.svg theme=light center=1,0 : x^2 + y^2 = 4; (cos(t), sin(t))
+ * run.png scale=0.01 center=5000,0 : data: run.csv; 1.5 * sin(x / 100)
+ * </pre>
+ *
+ * Defaults are 800x600, 50 pixels per unit, centred on the origin, in the window's default theme;
+ * relative outputs and data files are resolved against the batch file's directory.
+ */
+public final class PlotExporter {
+    private static final Timer EXPORT = Metrics.timer("graph.export");
+    private static final Counter FAILED = Metrics.counter("graph.export.failed");
+
+    /** One image: {@code entries} (already expanded) drawn over {@code view} in {@code theme}. */
+    record Spec(Path out, List<String> entries, Viewport view, GraphThemeManager.Theme theme) {}
+
+    private final GraphSampling sampling = new GraphSampling();
+    private final GraphLogic logic = new GraphLogic(); // only for its grid step
+    private final Session session;
+    private final int sampleBudget = Integer.getInteger("graph.sampleBudget", 100_000);
+
+    /** {@code session}'s definitions are expanded in the plotted entries; may be null. */
+    public PlotExporter(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Renders every plot of the batch file {@code specs}, in parallel, and returns a report: one line per
+     * plot that failed, then a summary.
+     */
+    public String batch(Path specs) throws IOException {
+        List<String> lines = Files.readAllLines(specs);
+        Path dir = specs.toAbsolutePath().getParent();
+        List<Spec> plots = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        StringBuilder report = new StringBuilder();
+        int parseErrors = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                plots.add(parse(line, dir));
+                lineNumbers.add(i + 1);
+            } catch (IllegalArgumentException e) {
+                report.append("line ").append(i + 1).append(": ").append(e.getMessage()).append('\n');
+                parseErrors++;
+            }
+        }
+
+        long t0 = System.nanoTime();
+        String[] errors = new String[plots.size()];
+        IntStream.range(0, plots.size()).parallel().forEach(i -> {
+            try {
+                render(plots.get(i));
+            } catch (IOException | RuntimeException e) {
+                FAILED.inc();
+                errors[i] = "line " + lineNumbers.get(i) + ": " + plots.get(i).out().getFileName() + ": " + e.getMessage();
+            }
+        });
+        int rendered = plots.size();
+        for (String e : errors) {
+            if (e == null) continue;
+            report.append(e).append('\n');
+            rendered--;
+        }
+        report.append(String.format("Rendered %d of %d plots in %.0f ms.%n", rendered,
+                plots.size() + parseErrors, (System.nanoTime() - t0) / 1e6));
+        return report.toString();
+    }
+
+    /** Samples and paints {@code spec}, writing its file. */
+    void render(Spec spec) throws IOException {
+        long t0 = Metrics.start();
+        try {
+            Viewport view = spec.view();
+            GraphThemeManager theme = new GraphThemeManager();
+            theme.setCurrentTheme(spec.theme());
+            List<CurveBuffer> curves = sample(spec.entries(), view);
+
+            String name = spec.out().getFileName().toString().toLowerCase(Locale.ROOT);
+            int w = (int) view.width(), h = (int) view.height();
+            if (name.endsWith(".svg")) {
+                try (Writer out = Files.newBufferedWriter(spec.out())) {
+                    SvgSurface svg = new SvgSurface(out, w, h);
+                    paint(svg, view, theme, curves);
+                    svg.finish();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            } else if (name.endsWith(".png")) {
+                RasterSurface raster = new RasterSurface(w, h);
+                paint(raster, view, theme, curves);
+                ImageIO.write(raster.finish(), "png", spec.out().toFile());
+            } else {
+                throw new IllegalArgumentException("output must end in .png or .svg");
+            }
+        } finally {
+            EXPORT.stop(t0);
+        }
+    }
+
+    // each entry's exact samples, projected, plus its vertical lines; as the window draws them
+    private List<CurveBuffer> sample(List<String> entries, Viewport view) {
+        List<CurveBuffer> curves = new ArrayList<>();
+        List<Double> verticalLines = new ArrayList<>();
+        int budget = sampleBudget / Math.max(1, entries.size());
+        for (String entry : entries) {
+            CurveSnapshot.Entry[] last = {CurveSnapshot.Entry.EMPTY};
+            sampling.sample(entry, Map.of(), view, budget, () -> false, e -> last[0] = e);
+            for (Double vx : last[0].verticalLines()) {
+                if (!GraphSampling.addUnique(verticalLines, vx)) continue;
+                CurveBuffer line = new CurveBuffer(2);
+                line.add(view.screenX(vx), 0, vx, view.worldY(0));
+                line.add(view.screenX(vx), view.height(), vx, view.worldY(view.height()));
+                curves.add(line);
+            }
+            if (last[0].xs().length > 0) {
+                CurveBuffer c = new CurveBuffer(last[0].xs().length);
+                c.project(last[0].xs(), last[0].ys(), last[0].xs().length, view);
+                curves.add(c);
+            }
+        }
+        return curves;
+    }
+
+    private void paint(PlotSurface s, Viewport view, GraphThemeManager theme, List<CurveBuffer> curves) {
+        PlotPainter.grid(s, view, logic, theme);
+        ColumnDecimator decimator = new ColumnDecimator();
+        for (int i = 0; i < curves.size(); i++) {
+            s.stroke(PlotPainter.color(i), PlotPainter.CURVE_WIDTH);
+            PlotPainter.curve(s, curves.get(i), view, decimator);
+        }
+    }
+
+    // "out [WxH] [scale=S] [center=X,Y] [theme=NAME] : entries"
+    Spec parse(String line, Path dir) {
+        int colon = line.indexOf(':');
+        while (colon == 1 && colon + 1 < line.length() && (line.charAt(2) == '\\' || line.charAt(2) == '/')) {
+            colon = line.indexOf(':', colon + 1); // a drive letter, C:\plots\...
+        }
+        if (colon < 0) throw new IllegalArgumentException("expected 'output [options] : entries'");
+        String[] head = line.substring(0, colon).trim().split("\\s+");
+        if (head[0].isEmpty()) throw new IllegalArgumentException("missing output file");
+        double w = 800, h = 600, scale = 50, cx = 0, cy = 0;
+        GraphThemeManager.Theme theme = new GraphThemeManager().getCurrentTheme();
+        try {
+            for (int i = 1; i < head.length; i++) {
+                String option = head[i].toLowerCase(Locale.ROOT);
+                if (option.matches("\\d+x\\d+")) {
+                    String[] size = option.split("x");
+                    w = Integer.parseInt(size[0]);
+                    h = Integer.parseInt(size[1]);
+                } else if (option.startsWith("scale=")) {
+                    scale = Double.parseDouble(option.substring(6));
+                } else if (option.startsWith("center=")) {
+                    String[] c = option.substring(7).split(",");
+                    cx = Double.parseDouble(c[0]);
+                    cy = Double.parseDouble(c[1]);
+                } else if (option.startsWith("theme=")) {
+                    theme = GraphThemeManager.Theme.valueOf(option.substring(6).toUpperCase(Locale.ROOT));
+                } else {
+                    throw new IllegalArgumentException("unknown option " + head[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("bad option: " + e.getMessage());
+        }
+        if (w < 1 || h < 1 || w > 16384 || h > 16384 || !(scale > 0)) {
+            throw new IllegalArgumentException("size must be 1..16384 px and scale positive");
+        }
+
+        List<String> entries = new ArrayList<>();
+        for (String entry : line.substring(colon + 1).split(";")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) continue;
+            if (DataSeries.isEntry(entry)) {
+                entry = "data: " + dir.resolve(DataSeries.path(entry)); // relative to the batch file, like outputs
+            } else if (session != null) {
+                try { entry = session.expand(entry); } catch (Exception ignored) {}
+            }
+            entries.add(entry);
+        }
+        return new Spec(dir.resolve(head[0]), entries, new Viewport(w, h, scale, -cx * scale, cy * scale), theme);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Paints the static picture of a plot onto a {@link PlotSurface}: background, grid with labels, axes and
+ * curves, in the theme's colours. The graph window's static layer and the headless exporter both draw
+ * through here, so an exported image looks like the window.
+ */
+final class PlotPainter {
+    private static final Color[] COLORS = {Color.web("#ff6b6b"), Color.web("#4da6ff"), Color.web("#7bffb2"), Color.web("#ffb86b"), Color.web("#c087ff")};
+    /** A segment whose world y jumps by more than this fraction of the view's height is not drawn. */
+    private static final double DISCONTINUITY_THRESHOLD = 0.5;
+    static final double CURVE_WIDTH = 2;
+
+    private PlotPainter() {}
+
+    /** Background, grid lines every "nice" step of about 50 px with their labels, and the axes. */
+    static void grid(PlotSurface s, Viewport view, GraphLogic logic, GraphThemeManager theme) {
+        double w = view.width(), h = view.height(), scale = view.scale(), offsetX = view.offsetX(), offsetY = view.offsetY();
+        double overscan = 2; // extra pixels drawn around the edges
+        Color textColor = theme.getTextColor();
+
+        s.fill(theme.getBackgroundPaint(), w, h);
+
+        double minPixelSpacing = 50;
+        double step = logic.chooseNiceStep(minPixelSpacing / scale);
+        s.stroke(theme.getGridColor(), 1);
+
+        // vertical grid lines
+        for (double worldX = Math.floor((-w / 2 - overscan - offsetX) / scale / step) * step;
+             worldX * scale + w / 2 + offsetX < w + overscan;
+             worldX += step) {
+
+            double screenX = w / 2 + worldX * scale + offsetX;
+            s.line(screenX, 0, screenX, h);
+
+            if (Math.abs(worldX) > 1e-6) s.text(String.format("%.2f", worldX), screenX + 2, h / 2 + offsetY - 2, textColor);
+        }
+
+        // horizontal grid lines
+        for (double worldY = Math.floor((-h / 2 - overscan - offsetY) / scale / step) * step;
+             worldY * scale + h / 2 + offsetY < h + overscan;
+             worldY += step) {
+
+            double screenY = h / 2 - worldY * scale + offsetY;
+            s.line(0, screenY, w, screenY);
+
+            if (Math.abs(worldY) > 1e-6) s.text(String.format("%.2f", worldY), w / 2 + offsetX + 2, screenY - 2, textColor);
+        }
+
+        // axes
+        s.stroke(theme.getAxisColor(), 2);
+        s.line(0, h / 2 + offsetY, w, h / 2 + offsetY);
+        s.line(w / 2 + offsetX, 0, w / 2 + offsetX, h);
+    }
+
+    /** The colour of the {@code index}-th curve. */
+    static Color color(int index) {
+        return COLORS[index % COLORS.length];
+    }
+
+    /** Strokes {@code pts} with the surface's current stroke, decimated by {@code decimator}, skipping jumps. */
+    static void curve(PlotSurface s, CurveBuffer pts, Viewport view, ColumnDecimator decimator) {
+        decimator.decimate(pts, (view.height() / view.scale()) * DISCONTINUITY_THRESHOLD);
+        s.polyline(decimator);
+    }
+}
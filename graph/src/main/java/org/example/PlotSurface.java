@@ -0,0 +1,23 @@
+package org.example;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+/**
+ * Where {@link PlotPainter} draws: the graph window's canvas, or a headless raster or SVG file. Colours
+ * are JavaFX paint values, which are plain data and need no running toolkit. Coordinates are pixels.
+ */
+interface PlotSurface {
+    /** Fills the whole {@code w} x {@code h} surface. */
+    void fill(Paint paint, double w, double h);
+
+    /** Stroke colour and line width for the lines and polylines that follow. */
+    void stroke(Color color, double width);
+
+    void line(double x1, double y1, double x2, double y2);
+
+    /** Strokes the decimated points as one polyline; NaN points lift the pen. */
+    void polyline(ColumnDecimator points);
+
+    void text(String s, double x, double y, Color color);
+}
@@ -0,0 +1,97 @@
+package org.example;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.Stop;
+
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.LinearGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/** {@link PlotSurface} over an in-memory ARGB image, drawn with Java2D; needs no display. */
+final class RasterSurface implements PlotSurface {
+    private final BufferedImage image;
+    private final Graphics2D g;
+    private java.awt.Color stroke = java.awt.Color.BLACK; // Java2D has one paint for lines and text
+
+    RasterSurface(int width, int height) {
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+    }
+
+    /** The finished image; the surface must not be drawn on afterwards. */
+    BufferedImage finish() {
+        g.dispose();
+        return image;
+    }
+
+    @Override
+    public void fill(Paint paint, double w, double h) {
+        if (paint instanceof LinearGradient lg) {
+            // proportional gradients run over the filled rectangle, as on the canvas
+            double sx = lg.isProportional() ? w : 1, sy = lg.isProportional() ? h : 1;
+            List<Stop> stops = lg.getStops();
+            float[] fractions = new float[stops.size()];
+            java.awt.Color[] colors = new java.awt.Color[stops.size()];
+            for (int i = 0; i < fractions.length; i++) {
+                fractions[i] = (float) stops.get(i).getOffset();
+                colors[i] = awt(stops.get(i).getColor());
+            }
+            g.setPaint(new LinearGradientPaint((float) (lg.getStartX() * sx), (float) (lg.getStartY() * sy),
+                    (float) (lg.getEndX() * sx), (float) (lg.getEndY() * sy), fractions, colors));
+        } else {
+            g.setPaint(awt(paint instanceof Color c ? c : Color.WHITE));
+        }
+        g.fill(new java.awt.geom.Rectangle2D.Double(0, 0, w, h));
+    }
+
+    @Override
+    public void stroke(Color color, double width) {
+        stroke = awt(color);
+        g.setStroke(new BasicStroke((float) width, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER));
+    }
+
+    @Override
+    public void line(double x1, double y1, double x2, double y2) {
+        g.setPaint(stroke);
+        g.draw(new Line2D.Double(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void polyline(ColumnDecimator points) {
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, points.size());
+        boolean penDown = false;
+        for (int k = 0; k < points.size(); k++) {
+            double x = points.x(k), y = points.y(k);
+            if (Double.isNaN(x)) {
+                penDown = false;
+            } else if (penDown) {
+                path.lineTo(x, y);
+            } else {
+                path.moveTo(x, y);
+                penDown = true;
+            }
+        }
+        g.setPaint(stroke);
+        g.draw(path);
+    }
+
+    @Override
+    public void text(String s, double x, double y, Color color) {
+        g.setPaint(awt(color));
+        g.drawString(s, (float) x, (float) y);
+    }
+
+    private static java.awt.Color awt(Color c) {
+        return new java.awt.Color((float) c.getRed(), (float) c.getGreen(), (float) c.getBlue(), (float) c.getOpacity());
+    }
+}
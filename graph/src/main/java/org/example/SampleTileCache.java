@@ -0,0 +1,161 @@
+package org.example;
+
+import org.example.metrics.Counter;
+import org.example.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Function samples cut into tiles of {@link #TILE} lattice steps, keyed by (expression, level, tile index).
+ * Level L has lattice spacing 2^-L, so one level covers every zoom between two powers of two and a pan
+ * only needs the tiles that scrolled into view. Each tile is sampled adaptively ({@link AdaptiveSampler}),
+ * so it holds anywhere from a few dozen to a few thousand points. Tiles are kept in an LRU under a byte
+ * budget (-Dgraph.tileCacheMB, default 64).
+ *
+ * When a tile is missing but a neighbouring level has the same x range, {@link #approximate} borrows
+ * that level's points so a zoom animation has something to draw before {@link #compute} has the exact
+ * tile. All methods may be called from any thread.
+ */
+class SampleTileCache {
+    static final int TILE = 256;
+    private static final long ENTRY_BYTES = 128; // key, entry and array headers
+    private static final int NEARBY_LEVELS = 3;
+
+    private static final Counter HITS = Metrics.counter("graph.tiles.hit");
+    private static final Counter APPROX = Metrics.counter("graph.tiles.approx");
+    private static final Counter MISSES = Metrics.counter("graph.tiles.miss");
+    private static final Counter EVALS = Metrics.counter("graph.samples.evaluated");
+
+    record Key(String expr, int level, long index) {}
+
+    /** x-sorted samples of one tile; y is NaN where the function has no point. */
+    record Tile(double[] xs, double[] ys, int evals) {
+        int size() { return xs.length; }
+        long bytes() { return ENTRY_BYTES + 16L * xs.length; }
+    }
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Key, Tile> tiles = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    // per-frame counts for the debug overlay
+    private int frameHits, frameApprox, frameMisses;
+    private long frameEvals;
+
+    SampleTileCache() {
+        this(Long.getLong("graph.tileCacheMB", 64) * 1024 * 1024);
+    }
+
+    SampleTileCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /** Smallest level whose spacing is at most one pixel at {@code scale} pixels per unit. */
+    static int levelFor(double scale) {
+        return Math.getExponent(scale) + (scale == Math.scalb(1.0, Math.getExponent(scale)) ? 0 : 1);
+    }
+
+    static double spacing(int level) {
+        return Math.scalb(1.0, -level);
+    }
+
+    /** World x where tile {@code index} of {@code level} starts. */
+    static double tileStart(int level, long index) {
+        return index * TILE * spacing(level);
+    }
+
+    // --- Lookup ---
+
+    synchronized Tile get(Key key) {
+        Tile tile = tiles.get(key);
+        if (tile != null) {
+            frameHits++;
+            HITS.inc();
+        }
+        return tile;
+    }
+
+    /** The tile's x range taken from the nearest level that has all of it cached, or null. */
+    synchronized Tile approximate(Key key) {
+        for (int d = 1; d <= NEARBY_LEVELS; d++) {
+            for (int level : new int[]{key.level() + d, key.level() - d}) {
+                Tile tile = borrow(key, level);
+                if (tile != null) {
+                    frameApprox++;
+                    APPROX.inc();
+                    return tile;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Tile borrow(Key key, int level) {
+        double x0 = tileStart(key.level(), key.index()), x1 = tileStart(key.level(), key.index() + 1);
+        long first = (long) Math.floor(x0 / (TILE * spacing(level)));
+        long last = (long) Math.ceil(x1 / (TILE * spacing(level))) - 1;
+        Tile[] parts = new Tile[(int) (last - first + 1)];
+        int n = 0;
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = tiles.get(new Key(key.expr(), level, first + i)); // counts as recently used
+            if (parts[i] == null) return null;
+            n += parts[i].size();
+        }
+        double[] xs = new double[n], ys = new double[n];
+        int m = 0;
+        for (Tile p : parts) {
+            for (int i = 0; i < p.size(); i++) {
+                if (p.xs[i] < x0 || p.xs[i] >= x1) continue;
+                xs[m] = p.xs[i];
+                ys[m++] = p.ys[i];
+            }
+        }
+        return new Tile(Arrays.copyOf(xs, m), Arrays.copyOf(ys, m), 0);
+    }
+
+    // --- Filling ---
+
+    /**
+     * Samples the parts of the tile that {@code domain} admits (all of it if null, equalities holding
+     * within {@code tol}) with at most about {@code budget} evaluations, and stores it.
+     */
+    Tile compute(Key key, DoubleUnaryOperator f, Domain domain, double tol, int budget) {
+        double x0 = tileStart(key.level(), key.index()), x1 = tileStart(key.level(), key.index() + 1);
+        double step = spacing(key.level());
+        double[] pieces = domain == null ? new double[]{x0, x1} : domain.intervals(x0, x1, step, tol);
+        Tile tile = AdaptiveSampler.sample(f, x0, TILE, step, budget, pieces);
+        MISSES.inc();
+        EVALS.add(tile.evals());
+        synchronized (this) {
+            frameMisses++;
+            frameEvals += tile.evals();
+            Tile old = tiles.put(key, tile);
+            bytes += tile.bytes() - (old == null ? 0 : old.bytes());
+            Iterator<Map.Entry<Key, Tile>> it = tiles.entrySet().iterator();
+            while (bytes > budgetBytes && it.hasNext()) {
+                bytes -= it.next().getValue().bytes();
+                it.remove();
+            }
+        }
+        return tile;
+    }
+
+    // --- Debug overlay ---
+
+    /** Starts the per-frame counts shown by {@link #describe}. */
+    synchronized void beginFrame() {
+        frameHits = frameApprox = frameMisses = 0;
+        frameEvals = 0;
+    }
+
+    synchronized String describe() {
+        int lookups = frameHits + frameApprox + frameMisses;
+        return String.format("tiles %d  %.1f/%.0f MB  hit %d%%  approx %d  miss %d  evals %d",
+                tiles.size(), bytes / 1048576.0, budgetBytes / 1048576.0,
+                lookups == 0 ? 100 : frameHits * 100 / lookups, frameApprox, frameMisses, frameEvals);
+    }
+}
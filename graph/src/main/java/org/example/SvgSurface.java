@@ -0,0 +1,122 @@
+package org.example;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.Stop;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * {@link PlotSurface} that streams SVG elements to a writer as they are drawn, so a plot never exists
+ * in memory as a whole. {@link #finish} closes the document; write failures surface as
+ * {@link UncheckedIOException}.
+ */
+final class SvgSurface implements PlotSurface {
+    private final Writer out;
+    private String stroke = "#000000";
+    private double strokeOpacity = 1, strokeWidth = 1;
+
+    SvgSurface(Writer out, int width, int height) {
+        this.out = out;
+        write(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\">%n",
+                width, height, width, height));
+    }
+
+    /** Ends the document and flushes it; the writer stays open. */
+    void finish() {
+        write("</svg>\n");
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void fill(Paint paint, double w, double h) {
+        String fill;
+        if (paint instanceof LinearGradient lg) {
+            String units = lg.isProportional() ? "objectBoundingBox" : "userSpaceOnUse";
+            write(String.format(Locale.ROOT, "<defs><linearGradient id=\"bg\" gradientUnits=\"%s\" x1=\"%s\" y1=\"%s\" x2=\"%s\" y2=\"%s\">",
+                    units, num(lg.getStartX()), num(lg.getStartY()), num(lg.getEndX()), num(lg.getEndY())));
+            for (Stop stop : lg.getStops()) {
+                write(String.format(Locale.ROOT, "<stop offset=\"%s\" stop-color=\"%s\" stop-opacity=\"%s\"/>",
+                        num(stop.getOffset()), hex(stop.getColor()), num(stop.getColor().getOpacity())));
+            }
+            write("</linearGradient></defs>\n");
+            fill = "url(#bg)";
+        } else {
+            Color c = paint instanceof Color color ? color : Color.WHITE;
+            fill = hex(c) + "\" fill-opacity=\"" + num(c.getOpacity());
+        }
+        write("<rect width=\"" + num(w) + "\" height=\"" + num(h) + "\" fill=\"" + fill + "\"/>\n");
+    }
+
+    @Override
+    public void stroke(Color color, double width) {
+        stroke = hex(color);
+        strokeOpacity = color.getOpacity();
+        strokeWidth = width;
+    }
+
+    @Override
+    public void line(double x1, double y1, double x2, double y2) {
+        write("<line x1=\"" + num(x1) + "\" y1=\"" + num(y1) + "\" x2=\"" + num(x2) + "\" y2=\"" + num(y2) + "\"" + strokeAttributes() + "/>\n");
+    }
+
+    @Override
+    public void polyline(ColumnDecimator points) {
+        if (points.size() == 0) return;
+        write("<path fill=\"none\"" + strokeAttributes() + " d=\"");
+        StringBuilder d = new StringBuilder();
+        boolean penDown = false;
+        for (int k = 0; k < points.size(); k++) {
+            double x = points.x(k), y = points.y(k);
+            if (Double.isNaN(x)) {
+                penDown = false;
+                continue;
+            }
+            d.append(penDown ? 'L' : 'M').append(num(x)).append(' ').append(num(y));
+            penDown = true;
+            if (d.length() > 8192) { // stream long paths in pieces
+                write(d);
+                d.setLength(0);
+            }
+        }
+        write(d);
+        write("\"/>\n");
+    }
+
+    @Override
+    public void text(String s, double x, double y, Color color) {
+        write("<text x=\"" + num(x) + "\" y=\"" + num(y) + "\" fill=\"" + hex(color) + "\" font-family=\"sans-serif\" font-size=\"12\">"
+                + s.replace("&", "&amp;").replace("<", "&lt;") + "</text>\n");
+    }
+
+    private String strokeAttributes() {
+        return " stroke=\"" + stroke + "\" stroke-opacity=\"" + num(strokeOpacity) + "\" stroke-width=\"" + num(strokeWidth) + "\"";
+    }
+
+    private static String hex(Color c) {
+        return String.format("#%02x%02x%02x", Math.round(c.getRed() * 255), Math.round(c.getGreen() * 255), Math.round(c.getBlue() * 255));
+    }
+
+    // two decimals, trailing zeros dropped; plenty for pixel coordinates
+    private static String num(double v) {
+        String s = String.format(Locale.ROOT, "%.2f", v);
+        if (s.indexOf('.') >= 0) s = s.replaceAll("0+$", "").replaceAll("\\.$", "");
+        return s;
+    }
+
+    private void write(CharSequence s) {
+        try {
+            out.append(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example;
+
+/** Canvas size and world-to-screen mapping of one frame: screen = centre + world * scale + offset (y flipped). */
+record Viewport(double width, double height, double scale, double offsetX, double offsetY) {
+
+    static Viewport of(GraphLogic logic, double width, double height) {
+        return new Viewport(width, height, logic.getScale(), logic.getOffsetX(), logic.getOffsetY());
+    }
+
+    boolean matches(double width, double height, double scale, double offsetX, double offsetY) {
+        return this.width == width && this.height == height && this.scale == scale
+                && this.offsetX == offsetX && this.offsetY == offsetY;
+    }
+
+    double screenX(double worldX) {
+        return width / 2 + worldX * scale + offsetX;
+    }
+
+    double screenY(double worldY) {
+        return height / 2 - worldY * scale + offsetY;
+    }
+
+    double worldX(double screenX) {
+        return (screenX - width / 2 - offsetX) / scale;
+    }
+
+    double worldY(double screenY) {
+        return (height / 2 + offsetY - screenY) / scale;
+    }
+}
@@ -18,6 +18,9 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import org.example.metrics.jfr.FdtdBatchEvent;
+import org.example.metrics.jfr.Jfr;
+
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -49,29 +52,6 @@ public class FDTDVisualizer extends Application {
     private Slider speedSlider;
     private Label statsLabel;
 
-    // Public static so FDTDSimulation can reference it in method signatures
-    public static class SimObject {
-        public String type;
-        public int x, y;
-        public int sizeX, sizeY;
-        public double angle;
-        public double conductivity;
-
-        public SimObject(String type, int x, int y, int sizeX, int sizeY, double angle, double conductivity) {
-            this.type = type;
-            this.x = x;
-            this.y = y;
-            this.sizeX = sizeX;
-            this.sizeY = sizeY;
-            this.angle = angle;
-            this.conductivity = conductivity;
-        }
-
-        public double getEffectiveRadius() {
-            return Math.max(sizeX, sizeY) * 1.5;
-        }
-    }
-
     private final List<SimObject> simObjects = new ArrayList<>();
     private SimObject selectedObject;
     private double dragStartX, dragStartY;
@@ -115,10 +95,15 @@ public class FDTDVisualizer extends Application {
                 // ~60 FPS cap
                 if (now - lastUpdate >= 16_666_666) {
                     if (isRunning) {
+                        FdtdBatchEvent batch = Jfr.recording() ? new FdtdBatchEvent() : null;
+                        if (batch != null) batch.begin();
                         for (int s = 0; s < simStepsPerFrame; s++) {
                             simulation.update();
                             incidentSim.update();
                         }
+                        if (batch != null) {
+                            batch.finish(simStepsPerFrame, 2, simulation.width, simulation.height, simulation.getTimeStep());
+                        }
                         render();
                         updateStats();
                     }
@@ -24,7 +24,10 @@ import javafx.stage.Stage;
 import java.io.*;
 import java.text.DecimalFormat;
 import java.util.*;
-import java.util.stream.IntStream;
+
+import org.example.physics.RcsSolver.Face;
+import org.example.physics.RcsSolver.MeshData;
+import org.example.physics.RcsSolver.Vertex;
 
 public class RCSSimulator3D extends Application {
 
@@ -43,29 +46,6 @@ public class RCSSimulator3D extends Application {
         }
     }
 
-    static class Vertex { float x, y, z; Vertex(float x,float y,float z){this.x=x;this.y=y;this.z=z;} }
-    static class Face { int v1,v2,v3; Face(int a,int b,int c){v1=a; v2=b; v3=c;} }
-    static class MeshData { List<Vertex> vertices = new ArrayList<>(); List<Face> faces = new ArrayList<>(); }
-    static class EdgeKey {
-        int v1, v2;
-        EdgeKey(int a, int b) { v1 = Math.min(a,b); v2 = Math.max(a,b); }
-        public boolean equals(Object o) {
-            if (!(o instanceof EdgeKey)) return false;
-            EdgeKey e = (EdgeKey)o;
-            return v1==e.v1 && v2==e.v2;
-        }
-        public int hashCode() { return v1*100000+v2; }
-    }
-    static class EdgeInfo {
-        double[] v1, v2;
-        List<Integer> adjacentFaces = new ArrayList<>();
-        double length;
-        EdgeInfo(double[] a, double[] b) { v1=a; v2=b; length=dist(a,b); }
-        static double dist(double[] a, double[] b) {
-            return Math.sqrt(Math.pow(a[0]-b[0],2)+Math.pow(a[1]-b[1],2)+Math.pow(a[2]-b[2],2));
-        }
-    }
-
     private MeshData meshData;
     private MeshView meshView;
     private double[] rcsLinear;
@@ -80,7 +60,6 @@ public class RCSSimulator3D extends Application {
     private Label currentRcsLabel;
     private Label modelInfoLabel;
     private final DecimalFormat df = new DecimalFormat("#0.00");
-    private static final double C = 299792458.0;
 
     private double cameraDistance = -800;
     private static final double MIN_CAMERA_DISTANCE = -50;
@@ -377,7 +356,7 @@ public class RCSSimulator3D extends Application {
 
     private void loadCustomObject(String path, Group sceneRoot) {
         new Thread(() -> {
-            meshData = loadOBJ(path);
+            meshData = RcsSolver.loadOBJ(path);
             if(meshData.vertices.isEmpty() || meshData.faces.isEmpty()) {
                 Platform.runLater(() -> showError("Failed to load OBJ file"));
                 return;
@@ -438,166 +417,8 @@ public class RCSSimulator3D extends Application {
         double freqGHz;
         try { freqGHz=Double.parseDouble(freqField.getText().trim()); if(freqGHz<=0) freqGHz=10.0; }
         catch(Exception ex){ freqGHz=10.0; Platform.runLater(()->freqField.setText("10.0")); }
-        final double freq=freqGHz*1e9;
-        final double lambda=C/freq;
-        final double k = 2.0 * Math.PI / lambda;
-
-        int nAngles=360;
-        double[] localRcs = new double[nAngles];
-
-        // Compute rotated vertices
-        double yaw = Math.toRadians(yawSlider.getValue());
-        double pitch = Math.toRadians(pitchSlider.getValue());
-        double roll = Math.toRadians(rollSlider.getValue());
-        double cosY=Math.cos(yaw), sinY=Math.sin(yaw);
-        double cosP=Math.cos(pitch), sinP=Math.sin(pitch);
-        double cosR=Math.cos(roll), sinR=Math.sin(roll);
-
-        List<double[]> rotatedVerts = new ArrayList<>();
-        for(Vertex v: meshData.vertices){
-            double x=v.x, y=v.y, z=v.z;
-            double xr = cosY*x + sinY*z;
-            double yr = sinP*sinY*x + cosP*y - sinP*cosY*z;
-            double zr = -cosP*sinY*x + sinP*y + cosP*cosY*z;
-            double xr2 = cosR*xr - sinR*yr;
-            double yr2 = sinR*xr + cosR*yr;
-            double zr2 = zr;
-            rotatedVerts.add(new double[]{xr2, yr2, zr2});
-        }
-
-        int F=meshData.faces.size();
-
-        // Face data: normal and area
-        List<double[]> faceNormals = new ArrayList<>();
-        List<Double> faceAreas = new ArrayList<>();
-        List<double[]> faceCenters = new ArrayList<>();
-
-        for(int i=0;i<F;i++){
-            Face face = meshData.faces.get(i);
-            double[] v1=rotatedVerts.get(face.v1);
-            double[] v2=rotatedVerts.get(face.v2);
-            double[] v3=rotatedVerts.get(face.v3);
-
-            double ux=v2[0]-v1[0], uy=v2[1]-v1[1], uz=v2[2]-v1[2];
-            double vx=v3[0]-v1[0], vy=v3[1]-v1[1], vz=v3[2]-v1[2];
-            double cx=uy*vz-uz*vy, cy=uz*vx-ux*vz, cz=ux*vy-uy*vx;
-            double triArea=0.5*Math.sqrt(cx*cx+cy*cy+cz*cz);
-            double norm=Math.sqrt(cx*cx+cy*cy+cz*cz);
-
-            double[] normal = new double[3];
-            if(norm>0) {
-                normal[0]=cx/norm;
-                normal[1]=cy/norm;
-                normal[2]=cz/norm;
-            }
-            faceNormals.add(normal);
-            faceAreas.add(triArea);
-            faceCenters.add(new double[]{(v1[0]+v2[0]+v3[0])/3.0, (v1[1]+v2[1]+v3[1])/3.0, (v1[2]+v2[2]+v3[2])/3.0});
-        }
-
-        // Build edge map with rotated vertices
-        Map<EdgeKey, EdgeInfo> edgeMap = new HashMap<>();
-        for(int fi=0; fi<F; fi++) {
-            Face f = meshData.faces.get(fi);
-            int[] verts = {f.v1, f.v2, f.v3};
-
-            for(int i=0; i<3; i++) {
-                int v1idx = verts[i];
-                int v2idx = verts[(i+1)%3];
-                EdgeKey key = new EdgeKey(v1idx, v2idx);
-
-                EdgeInfo info = edgeMap.get(key);
-                if(info == null) {
-                    info = new EdgeInfo(rotatedVerts.get(v1idx), rotatedVerts.get(v2idx));
-                    edgeMap.put(key, info);
-                }
-                info.adjacentFaces.add(fi);
-            }
-        }
-
-        IntStream.range(0,nAngles).parallel().forEach(thetaDeg->{
-            double theta=Math.toRadians(thetaDeg);
-            double ix=Math.cos(theta), iy=Math.sin(theta), iz=0.0;
-
-            // Complex field accumulation (real and imaginary parts)
-            double realSum = 0.0;
-            double imagSum = 0.0;
-
-            // Physical Optics - coherent summation
-            for(int fi=0; fi<F; fi++){
-                double[] normal = faceNormals.get(fi);
-                double ndoti = normal[0]*ix + normal[1]*iy + normal[2]*iz;
-                if(ndoti <= 0) continue;
-
-                double A = faceAreas.get(fi);
-                double[] center = faceCenters.get(fi);
-
-                // Phase from path length difference
-                double phase = k * (center[0]*ix + center[1]*iy + center[2]*iz);
-
-                // PO amplitude
-                double amplitude = Math.sqrt(4*Math.PI*A*A*ndoti*ndoti/(lambda*lambda));
-
-                realSum += amplitude * Math.cos(phase);
-                imagSum += amplitude * Math.sin(phase);
-            }
-
-            // Edge diffraction - creates the spiky pattern
-            for(EdgeInfo edge : edgeMap.values()) {
-                double[] v1 = edge.v1;
-                double[] v2 = edge.v2;
-
-                // Edge vector
-                double ex = v2[0] - v1[0];
-                double ey = v2[1] - v1[1];
-                double ez = v2[2] - v1[2];
-                double edgeLen = edge.length;
-
-                if(edgeLen < 1e-10) continue;
-
-                ex /= edgeLen; ey /= edgeLen; ez /= edgeLen;
-
-                // Edge center
-                double ecx = (v1[0] + v2[0]) / 2.0;
-                double ecy = (v1[1] + v2[1]) / 2.0;
-                double ecz = (v1[2] + v2[2]) / 2.0;
-
-                // Incident angle to edge
-                double edgeDotInc = Math.abs(ex*ix + ey*iy + ez*iz);
-                double sinAlpha = Math.sqrt(Math.max(0, 1.0 - edgeDotInc*edgeDotInc));
-
-                if(sinAlpha < 0.05) continue; // Skip near-parallel
-
-                // Edge phase
-                double edgePhase = k * (ecx*ix + ecy*iy + ecz*iz);
-
-                // Determine if edge is boundary or interior
-                boolean isBoundary = edge.adjacentFaces.size() == 1;
-                double wedgeAngle = isBoundary ? Math.PI : Math.PI * 0.5; // Simplified
-
-                // PTD diffraction coefficient (Keller-like)
-                double diffCoeff = Math.sin(wedgeAngle/2.0) / Math.sqrt(2.0 * Math.PI * k * edgeLen * sinAlpha + 0.01);
-
-                // Edge contribution amplitude
-                double edgeAmplitude = diffCoeff * edgeLen * Math.sqrt(k) * sinAlpha;
-
-                // Multiple scattering effects - creates interference
-                double multiScatter = 1.0;
-                for(int harmonic = 1; harmonic <= 3; harmonic++) {
-                    double harmonicPhase = harmonic * k * edgeLen * sinAlpha;
-                    multiScatter += 0.3 / harmonic * Math.cos(harmonicPhase);
-                }
-
-                edgeAmplitude *= Math.abs(multiScatter);
-
-                realSum += edgeAmplitude * Math.cos(edgePhase);
-                imagSum += edgeAmplitude * Math.sin(edgePhase);
-            }
-
-            // RCS from coherent field magnitude squared
-            double fieldMagnitude = Math.sqrt(realSum*realSum + imagSum*imagSum);
-            localRcs[thetaDeg] = fieldMagnitude * fieldMagnitude;
-        });
+        double[] localRcs = RcsSolver.compute(meshData, freqGHz,
+                yawSlider.getValue(), pitchSlider.getValue(), rollSlider.getValue(), 360);
 
         double[] localDb=new double[localRcs.length];
         for(int i=0;i<localRcs.length;i++) {
@@ -716,31 +537,5 @@ public class RCSSimulator3D extends Application {
         return mv;
     }
 
-    private MeshData loadOBJ(String path){
-        MeshData mesh=new MeshData();
-        try(BufferedReader br=new BufferedReader(new FileReader(path))){
-            String line;
-            List<Vertex> verts=new ArrayList<>();
-            while((line=br.readLine())!=null){
-                line=line.trim();
-                if(line.startsWith("v ")){
-                    String[] p=line.split("\\s+");
-                    float x=Float.parseFloat(p[1]);
-                    float y=Float.parseFloat(p[2]);
-                    float z=Float.parseFloat(p[3]);
-                    verts.add(new Vertex(x,y,z));
-                } else if(line.startsWith("f ")){
-                    String[] p=line.split("\\s+");
-                    int a=Integer.parseInt(p[1].split("/")[0])-1;
-                    int b=Integer.parseInt(p[2].split("/")[0])-1;
-                    int c=Integer.parseInt(p[3].split("/")[0])-1;
-                    mesh.faces.add(new Face(a,b,c));
-                }
-            }
-            mesh.vertices=verts;
-        } catch(IOException ex){ System.out.println("OBJ load error: "+ex.getMessage()); }
-        return mesh;
-    }
-
     public static void main(String[] args){ launch(args); }
 }
\ No newline at end of file